@@ -0,0 +1,40 @@
+package com.example.demo.dispatch.controller;
+
+import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerResponse;
+import com.example.demo.dispatch.service.AutoPlanningAlgorithmService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Powiadomienia optymalizatora o postępie i zakończeniu automatycznego planowania.
+ * Wywoływane przez optymalizator, a nie przez użytkownika, więc uwierzytelniane współdzielonym tokenem.
+ */
+@RestController
+@RequestMapping("/api/optimizer-callback")
+@RequiredArgsConstructor
+public class OptimizerCallbackController {
+
+    private static final String TOKEN_HEADER = "X-Optimizer-Callback-Token";
+
+    private final AutoPlanningAlgorithmService autoPlanningService;
+
+    @Value("${route.optimizer.callback.token:}")
+    private String callbackToken;
+
+    @PostMapping
+    public ResponseEntity<?> optimizationUpdated(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                 @RequestBody AutoPlanOptimizerResponse response) {
+        if (callbackToken.isBlank() || token == null
+                || !MessageDigest.isEqual(callbackToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        autoPlanningService.processOptimizerCallback(response);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -25,4 +25,12 @@ public class AutoPlanOptimizerRequest {
     private double[][] distanceMatrix;
 
     private double[][] durationMatrix;
+
+    // poprzedni plan tej samej daty (orderIdsOrdered każdej trasy), od którego optymalizator zaczyna po naprawie
+    private List<List<Long>> previousRoutes;
+
+    // adres, pod który optymalizator zgłasza postęp i zakończenie; token wraca w nagłówku wywołania
+    private String callbackUrl;
+
+    private String callbackToken;
 }
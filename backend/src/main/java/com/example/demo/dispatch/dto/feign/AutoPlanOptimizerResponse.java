@@ -16,7 +16,12 @@ import java.util.List;
 @AllArgsConstructor
 public class AutoPlanOptimizerResponse {
 
+    private Long planningId;
+
     private AutoPlanningStatus status;
 
     private List<AutoPlanningRoute> routes;
+
+    // łączny dystans tras; dla IN_PROGRESS dotyczy najlepszego dotychczasowego planu
+    private Double fitness;
 }
@@ -0,0 +1,183 @@
+package com.example.demo.dispatch.feign;
+
+import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerRequest;
+import com.example.demo.dispatch.dto.feign.PlanningDriverTO;
+import com.example.demo.dispatch.dto.feign.PlanningOrderTO;
+import com.example.demo.dispatch.dto.feign.PlanningVehicleTO;
+import com.example.demo.order.model.VehicleType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Binarna postać {@link AutoPlanOptimizerRequest} ({@value #CONTENT_TYPE}), zgodna z formatem optymalizatora:
+ * nagłówek [magic "OPTR"][wersja][flagi][długość treści], a w treści kierowcy, pojazdy, zlecenia
+ * i macierze zapisane wierszami jako float32 lub float64, a na końcu parametry jako pary (znacznik, wartość).
+ * Wszystkie liczby w kolejności little-endian.
+ */
+public final class OptimizerRequestEncoder {
+
+    public static final String CONTENT_TYPE = "application/x-optimizer-request";
+
+    private static final int MAGIC = 0x5254504F;
+    private static final int VERSION = 1;
+    private static final int FLAG_FLOAT32 = 1;
+    private static final int FLAG_DEFLATE = 2;
+    private static final int HEADER_BYTES = 10;
+
+    // znaczniki parametrów z wartością tekstową (długość i bajty UTF-8)
+    private static final int SETTING_CALLBACK_URL = 102;
+    private static final int SETTING_CALLBACK_TOKEN = 103;
+    // poprzedni plan: liczba tras, a dla każdej liczba zleceń i ich identyfikatory
+    private static final int SETTING_PREVIOUS_ROUTES = 104;
+
+    private OptimizerRequestEncoder() {
+    }
+
+    public static byte[] encode(AutoPlanOptimizerRequest request, boolean float32Matrices, boolean deflate) {
+        byte[] body = encodeBody(request, float32Matrices);
+        int bodyLength = body.length;
+        if (deflate) {
+            body = deflate(body);
+        }
+        int flags = (float32Matrices ? FLAG_FLOAT32 : 0) | (deflate ? FLAG_DEFLATE : 0);
+        return ByteBuffer.allocate(HEADER_BYTES + body.length).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) flags)
+                .putInt(bodyLength)
+                .put(body)
+                .array();
+    }
+
+    private static byte[] encodeBody(AutoPlanOptimizerRequest request, boolean float32Matrices) {
+        Set<PlanningDriverTO> drivers = request.getDrivers() != null ? request.getDrivers() : Set.of();
+        Set<PlanningVehicleTO> vehicles = request.getVehicles() != null ? request.getVehicles() : Set.of();
+        List<PlanningOrderTO> orders = request.getOrders() != null ? request.getOrders() : List.of();
+        int valueBytes = float32Matrices ? 4 : 8;
+        byte[] callbackUrl = utf8(request.getCallbackUrl());
+        byte[] callbackToken = utf8(request.getCallbackToken());
+        byte[] previousRoutes = encodeRoutes(request.getPreviousRoutes());
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 + 20 * drivers.size() + 4 + 9 * vehicles.size() + 4 + 16 * orders.size()
+                        + matrixBytes(request.getDistanceMatrix(), valueBytes) + matrixBytes(request.getDurationMatrix(), valueBytes)
+                        + 1 + textSettingBytes(callbackUrl) + textSettingBytes(callbackToken) + textSettingBytes(previousRoutes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(request.getPlanningId());
+
+        buffer.putInt(drivers.size());
+        for (PlanningDriverTO driver : drivers) {
+            buffer.putLong(driver.getId());
+            buffer.putInt(licenceMask(driver.getLicences()));
+            buffer.putInt(driver.getWorkStart() != null ? driver.getWorkStart().toSecondOfDay() : -1);
+            buffer.putInt(driver.getWorkEnd() != null ? driver.getWorkEnd().toSecondOfDay() : -1);
+        }
+
+        buffer.putInt(vehicles.size());
+        for (PlanningVehicleTO vehicle : vehicles) {
+            buffer.putLong(vehicle.getId());
+            buffer.put((byte) (vehicle.getVehicleType() != null ? vehicle.getVehicleType().ordinal() : -1));
+        }
+
+        buffer.putInt(orders.size());
+        for (PlanningOrderTO order : orders) {
+            buffer.putLong(order.getId());
+            buffer.putDouble(order.getCargoWeight());
+        }
+
+        putMatrix(buffer, request.getDistanceMatrix(), float32Matrices);
+        putMatrix(buffer, request.getDurationMatrix(), float32Matrices);
+        // bez parametrów przeszukiwania optymalizator użyje domyślnych
+        buffer.put((byte) ((callbackUrl != null ? 1 : 0) + (callbackToken != null ? 1 : 0) + (previousRoutes != null ? 1 : 0)));
+        putTextSetting(buffer, SETTING_CALLBACK_URL, callbackUrl);
+        putTextSetting(buffer, SETTING_CALLBACK_TOKEN, callbackToken);
+        putTextSetting(buffer, SETTING_PREVIOUS_ROUTES, previousRoutes);
+        return buffer.array();
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] encodeRoutes(List<List<Long>> routes) {
+        if (routes == null) {
+            return null;
+        }
+        int ids = routes.stream().mapToInt(route -> route != null ? route.size() : 0).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 * routes.size() + 8 * ids).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(routes.size());
+        for (List<Long> route : routes) {
+            List<Long> orderIds = route != null ? route : List.of();
+            buffer.putInt(orderIds.size());
+            orderIds.forEach(buffer::putLong);
+        }
+        return buffer.array();
+    }
+
+    private static int textSettingBytes(byte[] value) {
+        return value != null ? 1 + 4 + value.length : 0;
+    }
+
+    private static void putTextSetting(ByteBuffer buffer, int tag, byte[] value) {
+        if (value != null) {
+            buffer.put((byte) tag);
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static int matrixBytes(double[][] matrix, int valueBytes) {
+        return 4 + (matrix != null ? valueBytes * matrix.length * matrix.length : 0);
+    }
+
+    private static void putMatrix(ByteBuffer buffer, double[][] matrix, boolean float32) {
+        if (matrix == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(matrix.length);
+        for (double[] row : matrix) {
+            if (row.length != matrix.length) {
+                throw new IllegalArgumentException("Macierz musi być kwadratowa");
+            }
+            for (double value : row) {
+                if (float32) {
+                    buffer.putFloat((float) value);
+                } else {
+                    buffer.putDouble(value);
+                }
+            }
+        }
+    }
+
+    private static int licenceMask(Set<VehicleType> licences) {
+        int mask = 0;
+        if (licences != null) {
+            for (VehicleType type : licences) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] chunk = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -3,18 +3,39 @@ package com.example.demo.dispatch.feign;
 import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerRequest;
 import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(name = "route-optimizer", url = "${route.optimizer.url}/api/optimizer/")
 public interface RouteOptimizerClient {
 
     @PostMapping
     AutoPlanOptimizerResponse optimize(@RequestBody AutoPlanOptimizerRequest request);
 
+    /**
+     * Zlecenie w formacie binarnym {@link OptimizerRequestEncoder}.
+     */
+    @PostMapping(consumes = OptimizerRequestEncoder.CONTENT_TYPE)
+    AutoPlanOptimizerResponse optimizeBinary(@RequestBody byte[] request);
+
     @GetMapping("{id}")
     AutoPlanOptimizerResponse getOptimizationResult(@PathVariable Long id);
 
+    /**
+     * Stan wielu optymalizacji w jednym wywołaniu (status, trasy, dystans); nieznane id są pomijane.
+     */
+    @PostMapping("status")
+    List<AutoPlanOptimizerResponse> getOptimizationStatuses(@RequestBody List<Long> ids);
+
+    /**
+     * Anuluje trwającą optymalizację; optymalizator przerywa przeszukiwanie i zwalnia zasoby zadania.
+     */
+    @DeleteMapping("{id}")
+    void cancelOptimization(@PathVariable Long id);
+
 }
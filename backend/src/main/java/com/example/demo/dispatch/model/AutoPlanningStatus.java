@@ -5,5 +5,6 @@ public enum AutoPlanningStatus {
     COMPLETED,
     FAILED,
     ACCEPTED,
-    REJECTED
+    REJECTED,
+    CANCELLED
 }
@@ -14,8 +14,12 @@ import java.util.List;
 public interface AutoPlanningRepository extends JpaRepository<AutoPlanning, Long> {
     AutoPlanning findFirstByAuthorAndPlanningDateOrderByStartedAtDesc(User author, LocalDate planningDate);
 
+    AutoPlanning findFirstByAuthorAndPlanningDateAndStatusInOrderByStartedAtDesc(User author, LocalDate planningDate, Collection<AutoPlanningStatus> statuses);
+
     List<AutoPlanning> findAllByStatus(AutoPlanningStatus status);
 
+    List<AutoPlanning> findAllByAuthorAndStatusAndPlanningDate(User author, AutoPlanningStatus status, LocalDate planningDate);
+
     List<AutoPlanning> findAllByAuthor_EmailAndStatus(String email, AutoPlanningStatus status);
 
     List<AutoPlanning> findAllByConsumedIsFalseAndAuthor_EmailAndStatusIsIn(String email, Collection<AutoPlanningStatus> status);
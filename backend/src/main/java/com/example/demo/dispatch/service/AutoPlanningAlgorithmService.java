@@ -5,9 +5,11 @@ import com.example.demo.dispatch.dto.AutoPlanRoute;
 import com.example.demo.dispatch.dto.AutoPlanningEvent;
 import com.example.demo.dispatch.dto.RouteResponse;
 import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerRequest;
+import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerResponse;
 import com.example.demo.dispatch.dto.feign.PlanningDriverTO;
 import com.example.demo.dispatch.dto.feign.PlanningOrderTO;
 import com.example.demo.dispatch.dto.feign.PlanningVehicleTO;
+import com.example.demo.dispatch.feign.OptimizerRequestEncoder;
 import com.example.demo.dispatch.feign.RouteOptimizerClient;
 import com.example.demo.dispatch.model.*;
 import com.example.demo.dispatch.model.json.AutoPlanningResult;
@@ -30,8 +32,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -56,6 +61,27 @@ public class AutoPlanningAlgorithmService {
     @Value("${vehicle.base.address}")
     private String vehicleBaseAddress;
 
+    // binary - macierze w formacie binarnym (z powrotem do JSON, jeśli optymalizator go nie obsługuje), json - zawsze JSON
+    @Value("${route.optimizer.transport:binary}")
+    private String optimizerTransport;
+
+    @Value("${route.optimizer.transport.float32:true}")
+    private boolean optimizerTransportFloat32;
+
+    @Value("${route.optimizer.transport.deflate:false}")
+    private boolean optimizerTransportDeflate;
+
+    // adres, pod który optymalizator zgłasza wyniki; pusty = wyniki tylko przez odpytywanie
+    @Value("${route.optimizer.callback.url:}")
+    private String optimizerCallbackUrl;
+
+    @Value("${route.optimizer.callback.token:}")
+    private String optimizerCallbackToken;
+
+    // ponowne planowanie daty z zaakceptowanym planem zaczyna od tego planu zamiast od zera
+    @Value("${route.optimizer.warm-start:true}")
+    private boolean optimizerWarmStart;
+
     public AutoPlanResponse getOptimizationResult(String userEmail, LocalDate planningDate) {
         User user = userRepository.findByEmailAndSuspendedIsFalse(userEmail).orElseThrow();
         var autoPlanning = autoPlanningRepository.findFirstByAuthorAndPlanningDateOrderByStartedAtDesc(user, planningDate);
@@ -99,10 +125,9 @@ public class AutoPlanningAlgorithmService {
     @Transactional
     public void autoPlanRoutes(String email, LocalDate routeDate, List<Long> orderIds) {
         User user = userRepository.findByEmailAndSuspendedIsFalse(email).orElseThrow();
-        if (autoPlanningRepository.countAllByAuthorAndStatusInAndPlanningDate(user, List.of(AutoPlanningStatus.IN_PROGRESS, AutoPlanningStatus.COMPLETED), routeDate) > 0) {
-            throw new IllegalStateException("Istnieje już trwające lub oczekujące automatyczne planowanie dla tej daty.");
+        if (autoPlanningRepository.countAllByAuthorAndStatusInAndPlanningDate(user, List.of(AutoPlanningStatus.COMPLETED), routeDate) > 0) {
+            throw new IllegalStateException("Istnieje już oczekujące automatyczne planowanie dla tej daty.");
         }
-
         List<Order> orders = orderRepository.findAllById(orderIds);
         autoPlanningService.validateOrders(orders, orderIds, routeDate);
 
@@ -152,37 +177,121 @@ public class AutoPlanningAlgorithmService {
         var distanceMatrix = googleMapsService.getDistanceAndDurationMatrix(origins, destinations);
 
         try {
-            optimizerClient.optimize(AutoPlanOptimizerRequest.builder()
+            sendToOptimizer(AutoPlanOptimizerRequest.builder()
                     .planningId(autoPlanning.getId())
                     .drivers(Set.copyOf(drivers))
                     .vehicles(Set.copyOf(vehicles))
                     .orders(plannedOrders)
                     .distanceMatrix(distanceMatrix.distanceMatrix)
                     .durationMatrix(distanceMatrix.durationMatrix)
+                    .callbackUrl(optimizerCallbackUrl.isBlank() ? null : optimizerCallbackUrl)
+                    .callbackToken(optimizerCallbackToken.isBlank() ? null : optimizerCallbackToken)
+                    .previousRoutes(optimizerWarmStart ? previousRoutes(user, routeDate) : null)
                     .build()
             );
+        } catch (FeignException.TooManyRequests e) {
+            log.warn("Optymalizator odrzucił zadanie automatycznego planowania (przeciążenie): " + autoPlanning.getId());
+            autoPlanning.setStatus(AutoPlanningStatus.FAILED);
+            autoPlanningRepository.save(autoPlanning);
+            throw new RuntimeException("Optymalizator jest przeciążony. Spróbuj ponownie za chwilę.");
         } catch (Exception e) {
             log.error("Błąd podczas inicjowania automatycznego planowania dla zadania: " + autoPlanning.getId(), e);
             autoPlanning.setStatus(AutoPlanningStatus.FAILED);
             autoPlanningRepository.save(autoPlanning);
             throw new RuntimeException("Nie udało się zainicjować automatycznego planowania tras.");
         }
+        // nowe planowanie zastępuje trwające planowania tego autora dla tej samej daty; dopiero po przyjęciu
+        // przez optymalizator, aby odrzucone zlecenie nie anulowało dotychczasowego planowania
+        cancelSupersededAutoPlannings(user, routeDate, autoPlanning.getId());
+    }
+
+    /**
+     * Trasy ostatniego zaakceptowanego lub zakończonego planowania autora dla tej daty, jako poprzedni plan
+     * dla optymalizatora; null, jeśli takiego planowania nie ma.
+     */
+    private List<List<Long>> previousRoutes(User user, LocalDate routeDate) {
+        var previous = autoPlanningRepository.findFirstByAuthorAndPlanningDateAndStatusInOrderByStartedAtDesc(
+                user, routeDate, List.of(AutoPlanningStatus.ACCEPTED, AutoPlanningStatus.COMPLETED));
+        if (previous == null || previous.getResult() == null || previous.getResult().getRoutes() == null) {
+            return null;
+        }
+        return previous.getResult().getRoutes().stream()
+                .map(route -> route.getOrderIdsOrdered() != null ? List.copyOf(route.getOrderIdsOrdered()) : List.<Long>of())
+                .toList();
+    }
+
+    private void cancelSupersededAutoPlannings(User user, LocalDate routeDate, Long replacementId) {
+        var superseded = autoPlanningRepository.findAllByAuthorAndStatusAndPlanningDate(user, AutoPlanningStatus.IN_PROGRESS, routeDate);
+        for (AutoPlanning autoPlanning : superseded) {
+            if (autoPlanning.getId().equals(replacementId)) {
+                continue;
+            }
+            try {
+                optimizerClient.cancelOptimization(autoPlanning.getId());
+            } catch (FeignException.NotFound e) {
+                log.info("Nie rozpoznano zadania automatycznego planowania o ID: " + autoPlanning.getId());
+            } catch (Exception e) {
+                log.error("Błąd podczas anulowania automatycznego planowania dla zadania: " + autoPlanning.getId(), e);
+            }
+            autoPlanning.setStatus(AutoPlanningStatus.CANCELLED);
+            autoPlanningRepository.save(autoPlanning);
+            log.info("Anulowano zastąpione automatyczne planowanie: " + autoPlanning.getId());
+        }
+    }
+
+    private void sendToOptimizer(AutoPlanOptimizerRequest request) {
+        if ("binary".equals(optimizerTransport)) {
+            try {
+                optimizerClient.optimizeBinary(OptimizerRequestEncoder.encode(request, optimizerTransportFloat32, optimizerTransportDeflate));
+                return;
+            } catch (FeignException.UnsupportedMediaType e) {
+                log.warn("Optymalizator nie obsługuje formatu binarnego, zlecenie wysłane jako JSON: " + request.getPlanningId());
+            }
+        }
+        optimizerClient.optimize(request);
     }
 
+    /**
+     * Uzgadnia stan trwających planowań z optymalizatorem. Przy włączonych powiadomieniach
+     * ({@link #processOptimizerCallback}) tylko uzupełnia powiadomienia utracone. Planowania są odczytywane
+     * ponownie przed zapisem, aby odpowiedź pobrana przed powiadomieniem o zakończeniu go nie nadpisała.
+     */
     public void checkAndProcessAutoPlanningResults() {
         var autoPlannings = autoPlanningRepository.findAllByStatus(AutoPlanningStatus.IN_PROGRESS);
+        if (autoPlannings.isEmpty()) {
+            return;
+        }
+        Map<Long, AutoPlanOptimizerResponse> responses;
+        try {
+            responses = optimizerClient.getOptimizationStatuses(autoPlannings.stream().map(AutoPlanning::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(AutoPlanOptimizerResponse::getPlanningId, Function.identity(), (first, second) -> second));
+        } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+            log.warn("Optymalizator nie obsługuje zbiorczego sprawdzania stanu, sprawdzanie pojedynczo");
+            checkAutoPlanningResultsOneByOne(autoPlannings);
+            return;
+        } catch (Exception e) {
+            log.error("Błąd podczas pobierania wyników automatycznego planowania", e);
+            return;
+        }
         for (AutoPlanning autoPlanning : autoPlannings) {
+            var response = responses.get(autoPlanning.getId());
+            if (response == null) {
+                log.info("Nie rozpoznano zadania automatycznego planowania o ID: " + autoPlanning.getId());
+                continue;
+            }
             try {
-                var response = optimizerClient.getOptimizationResult(autoPlanning.getId());
-                if (response != null && response.getStatus() != null) {
-                    autoPlanning.setStatus(response.getStatus());
-                    if (response.getStatus() == AutoPlanningStatus.COMPLETED) {
-                        autoPlanning.setResult(AutoPlanningResult.builder().routes(response.getRoutes()).build());
-                    } else if (response.getStatus() == AutoPlanningStatus.FAILED) {
-                        log.warn("Automatyczne planowanie zakończyło się niepowodzeniem dla zadania: " + autoPlanning.getId());
-                    }
-                    autoPlanningRepository.save(autoPlanning);
-                }
+                applyIfInProgress(autoPlanning.getId(), response);
+            } catch (Exception e) {
+                log.error("Błąd podczas zapisu wyników automatycznego planowania dla zadania: " + autoPlanning.getId(), e);
+            }
+        }
+    }
+
+    private void checkAutoPlanningResultsOneByOne(List<AutoPlanning> autoPlannings) {
+        for (AutoPlanning autoPlanning : autoPlannings) {
+            try {
+                applyIfInProgress(autoPlanning.getId(), optimizerClient.getOptimizationResult(autoPlanning.getId()));
             } catch (FeignException.NotFound e) {
                 log.info("Nie rozpoznano zadania automatycznego planowania o ID: " + autoPlanning.getId());
             } catch (Exception e) {
@@ -191,6 +300,46 @@ public class AutoPlanningAlgorithmService {
         }
     }
 
+    /**
+     * Stan planowania zgłoszony przez optymalizator (postęp lub zakończenie). Powiadomienia o planowaniach
+     * już zakończonych lub anulowanych są pomijane.
+     */
+    @Transactional
+    public void processOptimizerCallback(AutoPlanOptimizerResponse response) {
+        if (response == null || response.getPlanningId() == null) {
+            return;
+        }
+        applyIfInProgress(response.getPlanningId(), response);
+    }
+
+    /**
+     * Zapisuje stan zgłoszony przez optymalizator w aktualnie zapisanym planowaniu, o ile nadal trwa;
+     * planowania zakończone lub anulowane w międzyczasie są pomijane.
+     */
+    private void applyIfInProgress(Long planningId, AutoPlanOptimizerResponse response) {
+        AutoPlanning autoPlanning = autoPlanningRepository.findById(planningId).orElse(null);
+        if (autoPlanning == null || autoPlanning.getStatus() != AutoPlanningStatus.IN_PROGRESS) {
+            return;
+        }
+        applyOptimizerResponse(autoPlanning, response);
+    }
+
+    private void applyOptimizerResponse(AutoPlanning autoPlanning, AutoPlanOptimizerResponse response) {
+        if (response == null || response.getStatus() == null) {
+            return;
+        }
+        autoPlanning.setStatus(response.getStatus());
+        if (response.getStatus() == AutoPlanningStatus.COMPLETED) {
+            autoPlanning.setResult(AutoPlanningResult.builder().routes(response.getRoutes()).build());
+        } else if (response.getStatus() == AutoPlanningStatus.IN_PROGRESS && response.getRoutes() != null) {
+            // najlepszy dotychczasowy plan, widoczny zanim optymalizacja się zakończy
+            autoPlanning.setResult(AutoPlanningResult.builder().routes(response.getRoutes()).build());
+        } else if (response.getStatus() == AutoPlanningStatus.FAILED) {
+            log.warn("Automatyczne planowanie zakończyło się niepowodzeniem dla zadania: " + autoPlanning.getId());
+        }
+        autoPlanningRepository.save(autoPlanning);
+    }
+
     public List<AutoPlanResponse> getPendingAutoPlannings(String email) {
         var autoPlannings = autoPlanningRepository.findAllByAuthor_EmailAndStatus(email, AutoPlanningStatus.IN_PROGRESS);
         return autoPlannings.stream().map(this::toAutoPlanResponse).toList();
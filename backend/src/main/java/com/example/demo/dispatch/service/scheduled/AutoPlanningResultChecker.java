@@ -13,7 +13,8 @@ public class AutoPlanningResultChecker {
 
     private final AutoPlanningAlgorithmService autoPlanningService;
 
-    @Scheduled(cron = "*/5 * * * * *")
+    // przy włączonych powiadomieniach optymalizatora (route.optimizer.callback.url) tylko uzgadnianie stanu
+    @Scheduled(cron = "${route.optimizer.poll-cron:*/5 * * * * *}")
     public void checkAutoPlanningResults() {
         autoPlanningService.checkAndProcessAutoPlanningResults();
     }
@@ -4,6 +4,7 @@ import com.example.demo.security.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -38,6 +39,8 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/h2-console/**").permitAll()
+                        // powiadomienia optymalizatora, uwierzytelniane tokenem w OptimizerCallbackController
+                        .requestMatchers(HttpMethod.POST, "/api/optimizer-callback").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,237 @@
+package com.example.demo.dispatch.feign;
+
+import com.example.demo.dispatch.dto.feign.AutoPlanOptimizerRequest;
+import com.example.demo.dispatch.dto.feign.PlanningDriverTO;
+import com.example.demo.dispatch.dto.feign.PlanningOrderTO;
+import com.example.demo.dispatch.dto.feign.PlanningVehicleTO;
+import com.example.demo.order.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Koder sprawdzany dekoderem napisanym według opisu formatu w {@link OptimizerRequestEncoder},
+ * odpowiadającym odczytowi po stronie optymalizatora.
+ */
+class OptimizerRequestEncoderTest {
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    @Test
+    void float64RoundTripIsExact() {
+        AutoPlanOptimizerRequest request = request(matrix(5, 1.1), matrix(5, 60.7));
+
+        assertEquals(request, decode(OptimizerRequestEncoder.encode(request, false, false)));
+    }
+
+    @Test
+    void float32RoundTripRoundsMatricesToFloat() {
+        AutoPlanOptimizerRequest request = request(matrix(5, 1.1), matrix(5, 60.7));
+        AutoPlanOptimizerRequest expected = request(toFloat(request.getDistanceMatrix()), toFloat(request.getDurationMatrix()));
+
+        assertEquals(expected, decode(OptimizerRequestEncoder.encode(request, true, false)));
+    }
+
+    @Test
+    void deflateRoundTripIsExact() {
+        AutoPlanOptimizerRequest request = request(matrix(40, 1.1), matrix(40, 60.7));
+
+        assertEquals(request, decode(OptimizerRequestEncoder.encode(request, false, true)));
+    }
+
+    @Test
+    void deflateFloat32RoundTripRoundsMatricesToFloat() {
+        AutoPlanOptimizerRequest request = request(matrix(40, 1.1), matrix(40, 60.7));
+        AutoPlanOptimizerRequest expected = request(toFloat(request.getDistanceMatrix()), toFloat(request.getDurationMatrix()));
+
+        assertEquals(expected, decode(OptimizerRequestEncoder.encode(request, true, true)));
+    }
+
+    @Test
+    void requestWithoutOptionalFieldsRoundTrips() {
+        AutoPlanOptimizerRequest request = AutoPlanOptimizerRequest.builder()
+                .planningId(3L)
+                .drivers(Set.of())
+                .vehicles(Set.of())
+                .orders(List.of())
+                .build();
+
+        assertEquals(request, decode(OptimizerRequestEncoder.encode(request, true, false)));
+    }
+
+    private static AutoPlanOptimizerRequest request(double[][] distanceMatrix, double[][] durationMatrix) {
+        int orders = distanceMatrix.length - 1;
+        return AutoPlanOptimizerRequest.builder()
+                .planningId(42L)
+                .drivers(Set.of(
+                        PlanningDriverTO.builder().id(1L).licences(EnumSet.of(VehicleType.SMALL_VAN, VehicleType.LARGE_TRUCK))
+                                .workStart(LocalTime.of(6, 30)).workEnd(LocalTime.of(14, 45)).build(),
+                        PlanningDriverTO.builder().id(2L).licences(EnumSet.noneOf(VehicleType.class)).build()))
+                .vehicles(Set.of(
+                        PlanningVehicleTO.builder().id(10L).vehicleType(VehicleType.MEDIUM_TRUCK).build(),
+                        PlanningVehicleTO.builder().id(11L).vehicleType(VehicleType.SEMI_TRUCK).build()))
+                .orders(LongStream.range(0, orders)
+                        .mapToObj(id -> PlanningOrderTO.builder().id(100 + id).cargoWeight(250.5 * (id + 1)).build())
+                        .toList())
+                .distanceMatrix(distanceMatrix)
+                .durationMatrix(durationMatrix)
+                .previousRoutes(List.of(List.of(100L, 101L), List.of(), List.of(102L)))
+                .callbackUrl("http://backend/api/auto-planning/callback")
+                .callbackToken("zażółć")
+                .build();
+    }
+
+    // wartości niereprezentowalne dokładnie we float32
+    private static double[][] matrix(int size, double scale) {
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = i == j ? 0 : scale * (Math.abs(i - j) + 0.123456789 * i);
+            }
+        }
+        return matrix;
+    }
+
+    private static double[][] toFloat(double[][] matrix) {
+        double[][] rounded = new double[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            rounded[i] = new double[matrix[i].length];
+            for (int j = 0; j < matrix[i].length; j++) {
+                rounded[i][j] = (float) matrix[i][j];
+            }
+        }
+        return rounded;
+    }
+
+    private static AutoPlanOptimizerRequest decode(byte[] frame) {
+        ByteBuffer header = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x5254504F, header.getInt());
+        assertEquals(1, header.get());
+        int flags = header.get();
+        int bodyLength = header.getInt();
+        byte[] body = new byte[header.remaining()];
+        header.get(body);
+        if ((flags & 2) != 0) {
+            body = inflate(body, bodyLength);
+        }
+        assertEquals(bodyLength, body.length);
+        boolean float32 = (flags & 1) != 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        AutoPlanOptimizerRequest request = new AutoPlanOptimizerRequest();
+        request.setPlanningId(buffer.getLong());
+
+        Set<PlanningDriverTO> drivers = new HashSet<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            long id = buffer.getLong();
+            int licenceMask = buffer.getInt();
+            int workStart = buffer.getInt();
+            int workEnd = buffer.getInt();
+            Set<VehicleType> licences = EnumSet.noneOf(VehicleType.class);
+            for (VehicleType type : VEHICLE_TYPES) {
+                if ((licenceMask & (1 << type.ordinal())) != 0) {
+                    licences.add(type);
+                }
+            }
+            drivers.add(PlanningDriverTO.builder()
+                    .id(id)
+                    .licences(licences)
+                    .workStart(workStart >= 0 ? LocalTime.ofSecondOfDay(workStart) : null)
+                    .workEnd(workEnd >= 0 ? LocalTime.ofSecondOfDay(workEnd) : null)
+                    .build());
+        }
+        request.setDrivers(drivers);
+
+        Set<PlanningVehicleTO> vehicles = new HashSet<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            long id = buffer.getLong();
+            int type = buffer.get();
+            vehicles.add(PlanningVehicleTO.builder().id(id).vehicleType(type >= 0 ? VEHICLE_TYPES[type] : null).build());
+        }
+        request.setVehicles(vehicles);
+
+        List<PlanningOrderTO> orders = new ArrayList<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            orders.add(PlanningOrderTO.builder().id(buffer.getLong()).cargoWeight(buffer.getDouble()).build());
+        }
+        request.setOrders(orders);
+
+        request.setDistanceMatrix(readMatrix(buffer, float32));
+        request.setDurationMatrix(readMatrix(buffer, float32));
+
+        for (int i = buffer.get(); i > 0; i--) {
+            int tag = buffer.get();
+            byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            switch (tag) {
+                case 102 -> request.setCallbackUrl(new String(value, StandardCharsets.UTF_8));
+                case 103 -> request.setCallbackToken(new String(value, StandardCharsets.UTF_8));
+                case 104 -> request.setPreviousRoutes(readRoutes(ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN)));
+                default -> throw new AssertionError("Unexpected setting tag " + tag);
+            }
+        }
+        assertEquals(0, buffer.remaining());
+        return request;
+    }
+
+    private static double[][] readMatrix(ByteBuffer buffer, boolean float32) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        double[][] matrix = new double[size][size];
+        for (double[] row : matrix) {
+            for (int j = 0; j < size; j++) {
+                row[j] = float32 ? buffer.getFloat() : buffer.getDouble();
+            }
+        }
+        return matrix;
+    }
+
+    private static List<List<Long>> readRoutes(ByteBuffer buffer) {
+        List<List<Long>> routes = new ArrayList<>();
+        for (int r = buffer.getInt(); r > 0; r--) {
+            List<Long> route = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                route.add(buffer.getLong());
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private static byte[] inflate(byte[] data, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(body, read, length - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            assertEquals(length, read);
+            return body;
+        } catch (DataFormatException e) {
+            throw new AssertionError("Invalid deflate stream", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
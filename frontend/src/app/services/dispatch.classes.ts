@@ -19,7 +19,8 @@ export enum AutoPlanningStatus {
   COMPLETED = 'COMPLETED',
   FAILED = 'FAILED',
   ACCEPTED = 'ACCEPTED',
-  REJECTED = 'REJECTED'
+  REJECTED = 'REJECTED',
+  CANCELLED = 'CANCELLED'
 }
 
 // TypeScript class for AutoPlanningEvent
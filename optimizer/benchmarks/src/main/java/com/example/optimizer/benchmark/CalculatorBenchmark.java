@@ -0,0 +1,102 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.algorithm.Calculator;
+import com.example.optimizer.algorithm.EvaluationWorkspace;
+import com.example.optimizer.algorithm.Solution;
+import com.example.optimizer.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porównanie funkcji celu na genomie {@code int[]} z buforem wątku
+ * i poprzedniej implementacji na {@code List<Integer>} oraz zamiana dopuszczalnego rozwiązania na trasy.
+ * Alokacje: {@code java -jar benchmarks.jar CalculatorBenchmark -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int orderCount;
+
+    private RunningOptimization optimization;
+    private double[][] distances;
+    private double[][] durations;
+    private Solution solution;
+    private List<Integer> legacySequence;
+    private Solution planned;
+    private EvaluationWorkspace workspace;
+
+    @Setup
+    public void setUp() {
+        SyntheticInstance instance = SyntheticInstance.generate(orderCount, 42);
+        distances = instance.distances();
+        durations = instance.durations();
+        optimization = instance.toOptimization(null);
+
+        int groupCount = Math.min(instance.drivers().size(), instance.vehicles().size());
+        solution = new Solution(orderCount, groupCount, new SplittableRandom(42));
+        legacySequence = new ArrayList<>();
+        for (int gene : solution.getSequence()) {
+            legacySequence.add(gene);
+        }
+        planned = plan(instance, groupCount);
+        workspace = EvaluationWorkspace.current(optimization);
+    }
+
+    @Benchmark
+    public double primitiveGenome() {
+        return Calculator.calculateFitness(solution.getSequence(), optimization, workspace);
+    }
+
+    @Benchmark
+    public double legacyBoxedGenome() {
+        return LegacyCalculator.calculateFitness(legacySequence, optimization, distances, durations);
+    }
+
+    @Benchmark
+    public List<OptimizedRoute> solutionToOptimizedRoutes() {
+        return Calculator.solutionToOptimizedRoutes(planned, optimization);
+    }
+
+    /**
+     * Dopuszczalne rozwiązanie z krótkiego przebiegu optymalizatora, odtworzone z tras: trasa losowego genomu
+     * zwykle przekracza zmianę kierowcy, a zamiana na trasy liczy tylko rozwiązania dopuszczalne.
+     */
+    private static Solution plan(SyntheticInstance instance, int groupCount) {
+        RunningOptimization run = instance.toOptimization(OptimizationSettings.builder().threads(1).starts(1).build());
+        run.setSeed(42L);
+        try (OptimizerHarness harness = new OptimizerHarness(1)) {
+            harness.optimize(run);
+        }
+        if (run.getRoutes() == null) {
+            throw new IllegalStateException("No feasible plan for " + instance.orders().size() + " orders");
+        }
+        Map<Long, Integer> orderIndexes = new HashMap<>();
+        for (int i = 0; i < instance.orders().size(); i++) {
+            orderIndexes.put(instance.orders().get(i).getId(), i);
+        }
+        // trasy rozdzielone separatorami -1..-(g-1), niewykorzystane separatory na końcu
+        int[] sequence = new int[instance.orders().size() + groupCount - 1];
+        int length = 0;
+        int separator = -1;
+        for (OptimizedRoute route : run.getRoutes()) {
+            if (length > 0) {
+                sequence[length++] = separator--;
+            }
+            for (Long orderId : route.getOrderIdsOrdered()) {
+                sequence[length++] = orderIndexes.get(orderId);
+            }
+        }
+        while (length < sequence.length) {
+            sequence[length++] = separator--;
+        }
+        return new Solution(sequence);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.model.OptimizationSettings;
+import com.example.optimizer.model.RunningOptimization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pełny przebieg optymalizacji (lista sąsiadów, rozwiązanie początkowe, przeszukiwanie do limitu iteracji,
+ * zamiana na trasy) na jednym wątku i jednym starcie, ze stałym ziarnem, więc każdy pomiar wykonuje tę samą
+ * trajektorię. Ocena najlepszego rozwiązania raportowana jest jako licznik pomocniczy {@code fitness}
+ * (NaN, gdy nie znaleziono dopuszczalnego przydziału).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"50", "200", "1000"})
+    public int orderCount;
+
+    @Param({"tabu", "annealing", "alns"})
+    public String engine;
+
+    private SyntheticInstance instance;
+    private OptimizerHarness harness;
+    private RunningOptimization optimization;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        instance = SyntheticInstance.generate(orderCount, SEED);
+        harness = new OptimizerHarness(1);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        optimization = instance.toOptimization(OptimizationSettings.builder()
+                .engine(engine)
+                .threads(1)
+                .starts(1)
+                .build());
+        optimization.setSeed(SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        harness.close();
+    }
+
+    @Benchmark
+    public RunningOptimization optimize(Quality quality) {
+        harness.optimize(optimization);
+        quality.fitness = optimization.getFitness() != null ? optimization.getFitness() : Double.NaN;
+        return optimization;
+    }
+
+    /**
+     * Ocena najlepszego rozwiązania, raportowana obok czasu w wynikach JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Quality {
+        public double fitness;
+    }
+}
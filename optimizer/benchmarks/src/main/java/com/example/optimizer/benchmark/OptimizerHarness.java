@@ -0,0 +1,51 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.algorithm.*;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.repository.NoOpOptimizationJobStore;
+import com.example.optimizer.repository.OptimizationResultCache;
+import com.example.optimizer.repository.RunningOptimizationRepository;
+import com.example.optimizer.service.OptimizationCallbackNotifier;
+import com.example.optimizer.service.OptimizationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link MetaheuristicOptimizer} ze wszystkimi silnikami, poza kontekstem Springa: bez zapisu zadań, powiadomień
+ * i pamięci wyników, z metrykami w pamięci, więc {@link #optimize} wykonuje całe przeszukiwanie w wątku wywołującym.
+ */
+final class OptimizerHarness implements AutoCloseable {
+
+    private final SearchWorkerPool workerPool;
+    private final OptimizationCallbackNotifier callbacks;
+    private final MetaheuristicOptimizer optimizer;
+
+    OptimizerHarness(int threads) {
+        workerPool = new SearchWorkerPool(threads, 256);
+        callbacks = new OptimizationCallbackNotifier(Duration.ofSeconds(5), 1);
+        optimizer = new MetaheuristicOptimizer(
+                List.of(new TabuSearchEngine(), new SimulatedAnnealingEngine(), new AdaptiveLargeNeighborhoodEngine()),
+                workerPool,
+                new RunningOptimizationRepository(Duration.ofHours(1), 1, Long.MAX_VALUE),
+                new NoOpOptimizationJobStore(),
+                callbacks,
+                new OptimizationResultCache("off", Duration.ZERO, 0),
+                new OptimizationMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Wynik (trasy i ocena) zapisywany jest w optymalizacji; macierz, indeks floty i lista sąsiadów
+     * są po zakończeniu zwalniane jak w usłudze.
+     */
+    void optimize(RunningOptimization optimization) {
+        optimizer.optimize(optimization);
+    }
+
+    @Override
+    public void close() {
+        workerPool.shutdown();
+        callbacks.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.codec.OptimizerRequestFrame;
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.*;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Czas serializacji i deserializacji {@link OptimizerRequest} w JSON i w formacie binarnym
+ * ({@link OptimizerRequestFrame}). Rozmiar ładunku raportowany jest jako licznik pomocniczy {@code payloadBytes}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestSerializationBenchmark {
+
+    @Param({"100", "500", "1000"})
+    public int stops;
+
+    @Param({"json", "float64", "float32", "float32-deflate"})
+    public String format;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private OptimizerRequest request;
+    private byte[] payload;
+    private int flags;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int locations = stops + 1;
+        double[][] x = new double[locations][2];
+        for (double[] point : x) {
+            point[0] = random.nextDouble() * 50;
+            point[1] = random.nextDouble() * 50;
+        }
+        // odległości w metrach i czasy w minutach, jak z macierzy odległości Google Maps
+        double[][] distances = new double[locations][locations];
+        double[][] durations = new double[locations][locations];
+        for (int i = 0; i < locations; i++) {
+            for (int j = 0; j < locations; j++) {
+                double kilometres = Math.hypot(x[i][0] - x[j][0], x[i][1] - x[j][1]) * (1.2 + 0.3 * random.nextDouble());
+                distances[i][j] = Math.round(kilometres * 1000);
+                durations[i][j] = kilometres / 45.0 * 60.0;
+            }
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < stops; i++) {
+            orders.add(Order.builder().id((long) i).cargoWeight(random.nextDouble() * 4000).build());
+        }
+        Set<Driver> drivers = new HashSet<>();
+        Set<Vehicle> vehicles = new HashSet<>();
+        for (int i = 0; i < Math.max(2, stops / 10); i++) {
+            drivers.add(Driver.builder()
+                    .id((long) i)
+                    .licences(EnumSet.allOf(VehicleType.class))
+                    .workStart(LocalTime.of(6, 0))
+                    .workEnd(LocalTime.of(22, 0))
+                    .build());
+            vehicles.add(Vehicle.builder()
+                    .id((long) i)
+                    .vehicleType(VehicleType.values()[i % VehicleType.values().length])
+                    .build());
+        }
+        request = OptimizerRequest.builder()
+                .planningId(1L)
+                .drivers(drivers)
+                .vehicles(vehicles)
+                .orders(orders)
+                .distanceMatrix(distances)
+                .durationMatrix(durations)
+                .build();
+
+        flags = switch (format) {
+            case "float32" -> OptimizerRequestFrame.FLAG_FLOAT32;
+            case "float32-deflate" -> OptimizerRequestFrame.FLAG_FLOAT32 | OptimizerRequestFrame.FLAG_DEFLATE;
+            default -> 0;
+        };
+        payload = serialize();
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize size) {
+        size.payloadBytes = payload.length;
+        return serialize();
+    }
+
+    @Benchmark
+    public OptimizerRequest decode(PayloadSize size) {
+        size.payloadBytes = payload.length;
+        if ("json".equals(format)) {
+            return mapper.readValue(payload, OptimizerRequest.class);
+        }
+        return OptimizerRequestFrame.decode(payload);
+    }
+
+    private byte[] serialize() {
+        if ("json".equals(format)) {
+            return mapper.writeValueAsBytes(request);
+        }
+        return OptimizerRequestFrame.encode(request, flags);
+    }
+
+    /**
+     * Rozmiar ładunku w bajtach, raportowany obok czasu w wynikach JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.model.*;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Syntetyczny dzień planowania do benchmarków: zlecenia z punktem odbioru i dostawy na kwadracie
+ * {@value #AREA_KM} km × {@value #AREA_KM} km z bazą pośrodku, macierz odległości euklidesowych (km)
+ * i czasów przejazdu (minuty, {@value #SPEED_KMH} km/h) w układzie {@link TravelMatrix}: wiersz i kolumna 0
+ * to baza, {@code [i][j]} to przejazd od dostawy zlecenia i do odbioru zlecenia j, a przekątna to przejazd
+ * od odbioru do dostawy. Ta sama liczba zleceń, kierowców, pojazdów i to samo ziarno dają tę samą instancję.
+ */
+public record SyntheticInstance(List<Order> orders, Set<Driver> drivers, Set<Vehicle> vehicles,
+                                double[][] distances, double[][] durations) {
+
+    static final double AREA_KM = 20.0;
+    static final double SPEED_KMH = 40.0;
+    private static final double MAX_CARGO_WEIGHT = 4000.0;
+
+    /**
+     * Instancja z kierowcą i pojazdem na każde dziesięć zleceń, co najmniej dwoma.
+     */
+    public static SyntheticInstance generate(int orderCount, long seed) {
+        int fleetSize = Math.max(2, orderCount / 10);
+        return generate(orderCount, fleetSize, fleetSize, seed);
+    }
+
+    public static SyntheticInstance generate(int orderCount, int driverCount, int vehicleCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int locations = orderCount + 1;
+        // punkt odbioru [0..1] i dostawy [2..3] każdej lokalizacji; baza odbiera i dostarcza w tym samym miejscu
+        double[][] points = new double[locations][4];
+        points[0] = new double[]{AREA_KM / 2, AREA_KM / 2, AREA_KM / 2, AREA_KM / 2};
+        for (int i = 1; i < locations; i++) {
+            for (int c = 0; c < 4; c++) {
+                points[i][c] = random.nextDouble() * AREA_KM;
+            }
+        }
+        double[][] distances = new double[locations][locations];
+        double[][] durations = new double[locations][locations];
+        for (int i = 0; i < locations; i++) {
+            for (int j = 0; j < locations; j++) {
+                distances[i][j] = i == j
+                        ? Math.hypot(points[i][2] - points[i][0], points[i][3] - points[i][1])
+                        : Math.hypot(points[j][0] - points[i][2], points[j][1] - points[i][3]);
+                durations[i][j] = distances[i][j] / SPEED_KMH * 60.0;
+            }
+        }
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(Order.builder().id((long) i + 1).cargoWeight(random.nextDouble() * MAX_CARGO_WEIGHT).build());
+        }
+        Set<Driver> drivers = new LinkedHashSet<>();
+        for (int i = 0; i < driverCount; i++) {
+            drivers.add(Driver.builder()
+                    .id((long) i + 1)
+                    .licences(EnumSet.allOf(VehicleType.class))
+                    .workStart(LocalTime.of(6, 0))
+                    .workEnd(LocalTime.of(22, 0))
+                    .build());
+        }
+        VehicleType[] types = VehicleType.values();
+        Set<Vehicle> vehicles = new LinkedHashSet<>();
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles.add(Vehicle.builder()
+                    .id((long) i + 1)
+                    .vehicleType(types[i % types.length])
+                    .build());
+        }
+        return new SyntheticInstance(orders, drivers, vehicles, distances, durations);
+    }
+
+    /**
+     * Optymalizacja przygotowana jak w {@code OptimizerService}: macierz, indeks floty i ustawienia z wartościami
+     * domyślnymi. Każde wywołanie zwraca nowy obiekt, bo optymalizator zapisuje w nim wynik.
+     */
+    public RunningOptimization toOptimization(OptimizationSettings settings) {
+        return RunningOptimization.builder()
+                .id(1L)
+                .status(OptimizationStatus.IN_PROGRESS)
+                .drivers(drivers)
+                .vehicles(vehicles)
+                .orders(orders)
+                .travelMatrix(TravelMatrix.of(distances, durations, false))
+                .fleetIndex(FleetIndex.of(drivers, vehicles, orders))
+                .settings(OptimizationSettings.withDefaults(settings))
+                .build();
+    }
+}
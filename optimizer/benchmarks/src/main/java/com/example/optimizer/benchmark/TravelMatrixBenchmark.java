@@ -0,0 +1,113 @@
+package com.example.optimizer.benchmark;
+
+import com.example.optimizer.algorithm.Solution;
+import com.example.optimizer.model.TravelMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pętla funkcji celu (dystans i czas kolejnych odcinków tras, jak w {@code Calculator}) na macierzach
+ * {@code double[][]} oraz na płaskiej {@link TravelMatrix} w trybie float64 i float32.
+ * Rozmiar macierzy raportowany jest jako licznik pomocniczy {@code matrixBytes}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TravelMatrixBenchmark {
+
+    private static final int SERVICE_TIME_MINUTES = 15;
+
+    @Param({"200", "1000"})
+    public int orderCount;
+
+    @Param({"jagged", "flat64", "flat32"})
+    public String layout;
+
+    private double[][] distances;
+    private double[][] durations;
+    private TravelMatrix matrix;
+    private int[] sequence;
+    private long matrixBytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int locations = orderCount + 1;
+        double[][] x = new double[locations][2];
+        for (double[] point : x) {
+            point[0] = random.nextDouble() * 100;
+            point[1] = random.nextDouble() * 100;
+        }
+        distances = new double[locations][locations];
+        durations = new double[locations][locations];
+        for (int i = 0; i < locations; i++) {
+            for (int j = 0; j < locations; j++) {
+                distances[i][j] = Math.hypot(x[i][0] - x[j][0], x[i][1] - x[j][1]);
+                durations[i][j] = distances[i][j] * 1.5;
+            }
+        }
+        long jaggedBytes = 2 * (16 + 8L * locations + locations * (16 + 8L * locations));
+        if (!"jagged".equals(layout)) {
+            matrix = TravelMatrix.of(distances, durations, "flat32".equals(layout));
+        }
+        matrixBytes = matrix != null ? matrix.bytes() : jaggedBytes;
+        sequence = new Solution(orderCount, Math.max(2, orderCount / 10), new SplittableRandom(42)).getSequence();
+    }
+
+    @Benchmark
+    public double travelLoop(MatrixSize size) {
+        size.matrixBytes = matrixBytes;
+        return matrix != null ? flatLoop() : jaggedLoop();
+    }
+
+    private double jaggedLoop() {
+        int currentLocation = 0;
+        double distance = 0.0;
+        double duration = 0.0;
+        for (int gene : sequence) {
+            if (gene < 0) {
+                distance += distances[currentLocation][0];
+                duration += durations[currentLocation][0];
+                currentLocation = 0;
+            } else {
+                distance += distances[currentLocation][gene + 1] + distances[gene + 1][gene + 1];
+                duration += durations[currentLocation][gene + 1] + durations[gene + 1][gene + 1] + SERVICE_TIME_MINUTES * 2;
+                currentLocation = gene + 1;
+            }
+        }
+        return distance + duration;
+    }
+
+    private double flatLoop() {
+        int currentLocation = 0;
+        double distance = 0.0;
+        double duration = 0.0;
+        for (int gene : sequence) {
+            if (gene < 0) {
+                distance += matrix.distance(currentLocation, 0);
+                duration += matrix.duration(currentLocation, 0);
+                currentLocation = 0;
+            } else {
+                distance += matrix.distance(currentLocation, gene + 1) + matrix.distance(gene + 1, gene + 1);
+                duration += matrix.duration(currentLocation, gene + 1) + matrix.duration(gene + 1, gene + 1) + SERVICE_TIME_MINUTES * 2;
+                currentLocation = gene + 1;
+            }
+        }
+        return distance + duration;
+    }
+
+    /**
+     * Rozmiar macierzy odległości i czasów w bajtach, raportowany obok czasu w wynikach JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MatrixSize {
+        public long matrixBytes;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.TravelMatrix;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Adaptacyjne przeszukiwanie dużego sąsiedztwa (ALNS): każda iteracja usuwa grupę zleceń z genomu (niszczenie)
+ * i wstawia je z powrotem w najtańsze dopuszczalne pozycje (naprawa). Geny separatorów nigdy nie są usuwane,
+ * więc trasy zachowują granice, a zlecenie wstawione obok separatora trafia na początek lub koniec trasy.
+ * Operatory są wybierane metodą ruletki z wagami dostosowywanymi do tego, jak często dawały poprawę;
+ * gorsze rozwiązania są akceptowane kryterium symulowanego wyżarzania.
+ */
+@Component
+public class AdaptiveLargeNeighborhoodEngine implements OptimizationEngine {
+
+    public static final String NAME = "alns";
+
+    private static final int MAX_ITERATIONS = 500;
+    private static final double MIN_REMOVAL_FRACTION = 0.05;
+    private static final double MAX_REMOVAL_FRACTION = 0.25;
+    private static final int MAX_REMOVED = 40;
+
+    // wagi są aktualizowane na podstawie punktów zebranych w każdym odcinku iteracji
+    private static final int SEGMENT_LENGTH = 50;
+    private static final double REACTION_FACTOR = 0.2;
+
+    // liczba najtańszych pozycji wstawienia sprawdzanych pełną oceną przed wyborem po prostu najtańszej
+    private static final int FEASIBILITY_CHECKS = 8;
+    private static final double INSERTION_NOISE = 0.2;
+    // usuwanie najgorszych losuje z początku listy posortowanej według objazdu, z obciążeniem o tym wykładniku
+    private static final double WORST_REMOVAL_BIAS = 3.0;
+
+    private static final double START_TEMPERATURE_RATIO = 0.02;
+    private static final double COOLING_RATE = 0.995;
+    private static final double REHEAT_RATIO = 1e-3;
+
+    private static final int DESTROY_RANDOM = 0;
+    private static final int DESTROY_SEGMENT = 1;
+    private static final int DESTROY_WORST = 2;
+    private static final String[] DESTROY_NAMES = {"random-removal", "segment-removal", "worst-removal"};
+
+    private static final int REPAIR_GREEDY = 0;
+    private static final int REPAIR_NOISY_GREEDY = 1;
+    private static final String[] REPAIR_NAMES = {"greedy-insertion", "noisy-greedy-insertion"};
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void runTrajectory(SearchContext context, Solution current, SplittableRandom rnd) {
+        RunningOptimization optimization = context.getOptimization();
+        int orderCount = optimization.getOrders().size();
+        EvaluationWorkspace workspace = EvaluationWorkspace.current(optimization);
+
+        double currentFitness = Calculator.calculateFitness(current.getSequence(), optimization, workspace);
+        Solution best = current.copy();
+        double bestFitness = currentFitness;
+        context.offer(best, bestFitness);
+        if (orderCount < 2) {
+            return;
+        }
+
+        Trajectory trajectory = new Trajectory(optimization, workspace, current.size(), rnd);
+        Solution candidate = current.copy();
+        AdaptiveWeights destroyWeights = new AdaptiveWeights(DESTROY_NAMES.length, SEGMENT_LENGTH, REACTION_FACTOR);
+        AdaptiveWeights repairWeights = new AdaptiveWeights(REPAIR_NAMES.length, SEGMENT_LENGTH, REACTION_FACTOR);
+        // liczby ruchów zaproponowanych, zaakceptowanych i poprawiających wynik dla każdego operatora,
+        // najpierw operatory niszczenia
+        long[][] counters = new long[DESTROY_NAMES.length + REPAIR_NAMES.length][3];
+
+        int minRemoved = Math.max(1, (int) (orderCount * MIN_REMOVAL_FRACTION));
+        int maxRemoved = Math.max(minRemoved, Math.min(MAX_REMOVED, (int) (orderCount * MAX_REMOVAL_FRACTION)));
+        double initialTemperature = startTemperature(currentFitness);
+        double temperature = initialTemperature;
+        boolean timeBudgeted = context.isTimeBudgeted();
+
+        for (int iter = 0; timeBudgeted || iter < MAX_ITERATIONS; iter++) {
+            if (context.shouldStop()) {
+                break;
+            }
+            context.iteration();
+
+            if (context.exchangeElite(iter, best, bestFitness, current)) {
+                currentFitness = Calculator.calculateFitness(current.getSequence(), optimization, workspace);
+            }
+
+            int destroy = destroyWeights.select(rnd);
+            int repair = repairWeights.select(rnd);
+            int removed = minRemoved + rnd.nextInt(maxRemoved - minRemoved + 1);
+            trajectory.destroy(destroy, current.getSequence(), removed);
+            trajectory.repair(repair, candidate.getSequence());
+            double candidateFitness = Calculator.calculateFitness(candidate.getSequence(), optimization, workspace);
+
+            double score = 0;
+            if (candidateFitness < bestFitness) {
+                score = AdaptiveWeights.SCORE_NEW_BEST;
+                best.copyFrom(candidate);
+                bestFitness = candidateFitness;
+                context.offer(best, bestFitness);
+            } else if (SimulatedAnnealingEngine.accept(currentFitness, candidateFitness, temperature, rnd)) {
+                score = candidateFitness < currentFitness ? AdaptiveWeights.SCORE_IMPROVED : AdaptiveWeights.SCORE_ACCEPTED;
+            }
+            count(counters[destroy], score > 0, candidateFitness < currentFitness);
+            count(counters[DESTROY_NAMES.length + repair], score > 0, candidateFitness < currentFitness);
+            if (score > 0) {
+                if (!Calculator.isFeasible(currentFitness) && Calculator.isFeasible(candidateFitness)) {
+                    // pierwsze dopuszczalne rozwiązanie, temperaturę można już dopasować do wartości funkcji celu
+                    initialTemperature = startTemperature(candidateFitness);
+                    temperature = initialTemperature;
+                }
+                current.copyFrom(candidate);
+                currentFitness = candidateFitness;
+            }
+            destroyWeights.use(destroy);
+            destroyWeights.score(destroy, score);
+            destroyWeights.endIteration();
+            repairWeights.use(repair);
+            repairWeights.score(repair, score);
+            repairWeights.endIteration();
+            temperature *= COOLING_RATE;
+            if (timeBudgeted && temperature < initialTemperature * REHEAT_RATIO) {
+                temperature = initialTemperature;
+            }
+        }
+        for (int i = 0; i < counters.length; i++) {
+            String operator = i < DESTROY_NAMES.length ? DESTROY_NAMES[i] : REPAIR_NAMES[i - DESTROY_NAMES.length];
+            context.recordOperator(operator, counters[i][0], counters[i][1], counters[i][2]);
+        }
+    }
+
+    private static void count(long[] counters, boolean accepted, boolean improved) {
+        counters[0]++;
+        if (accepted) {
+            counters[1]++;
+            if (improved) {
+                counters[2]++;
+            }
+        }
+    }
+
+    private static double startTemperature(double fitness) {
+        return Calculator.isFeasible(fitness) ? Math.max(fitness * START_TEMPERATURE_RATIO, 1e-9) : 1.0;
+    }
+
+    /**
+     * Bufory jednej trajektorii: częściowy genom po usunięciu, usunięte zlecenia i kandydaci do wstawienia.
+     */
+    private static final class Trajectory {
+
+        private final RunningOptimization optimization;
+        private final EvaluationWorkspace workspace;
+        private final TravelMatrix matrix;
+        private final SplittableRandom rnd;
+
+        private final int[] partial;
+        private int partialSize;
+        private final int[] removed;
+        private int removedCount;
+        private final boolean[] isRemoved;
+        private final int[] trial;
+
+        private final int[] orderPositions;
+        private final double[] detours;
+        private final Integer[] sortedPositions;
+
+        private final int[] checkPositions = new int[FEASIBILITY_CHECKS];
+        private final double[] checkCosts = new double[FEASIBILITY_CHECKS];
+
+        private Trajectory(RunningOptimization optimization, EvaluationWorkspace workspace, int length, SplittableRandom rnd) {
+            this.optimization = optimization;
+            this.workspace = workspace;
+            this.matrix = optimization.getTravelMatrix();
+            this.rnd = rnd;
+            int orderCount = optimization.getOrders().size();
+            partial = new int[length];
+            removed = new int[orderCount];
+            isRemoved = new boolean[length];
+            trial = new int[length];
+            orderPositions = new int[orderCount];
+            detours = new double[length];
+            sortedPositions = new Integer[orderCount];
+        }
+
+        /**
+         * Usuwa {@code count} zleceń z sekwencji, pozostawiając resztę w {@code partial}.
+         */
+        void destroy(int operator, int[] sequence, int count) {
+            int orders = 0;
+            for (int p = 0; p < sequence.length; p++) {
+                isRemoved[p] = false;
+                if (sequence[p] >= 0) {
+                    orderPositions[orders++] = p;
+                }
+            }
+            count = Math.min(count, orders);
+            switch (operator) {
+                case DESTROY_RANDOM -> {
+                    // częściowe tasowanie Fishera-Yatesa pozycji zleceń
+                    for (int i = 0; i < count; i++) {
+                        int j = i + rnd.nextInt(orders - i);
+                        int position = orderPositions[j];
+                        orderPositions[j] = orderPositions[i];
+                        orderPositions[i] = position;
+                        isRemoved[position] = true;
+                    }
+                }
+                case DESTROY_SEGMENT -> {
+                    // kolejne zlecenia, zwykle koniec jednej trasy i początek następnej
+                    int first = rnd.nextInt(orders);
+                    for (int i = 0; i < count; i++) {
+                        isRemoved[orderPositions[(first + i) % orders]] = true;
+                    }
+                }
+                default -> {
+                    computeDetours(sequence);
+                    for (int i = 0; i < orders; i++) {
+                        sortedPositions[i] = orderPositions[i];
+                    }
+                    Arrays.sort(sortedPositions, 0, orders, (x, y) -> Double.compare(detours[y], detours[x]));
+                    int available = orders;
+                    for (int i = 0; i < count; i++) {
+                        int pick = (int) (Math.pow(rnd.nextDouble(), WORST_REMOVAL_BIAS) * available);
+                        isRemoved[sortedPositions[pick]] = true;
+                        System.arraycopy(sortedPositions, pick + 1, sortedPositions, pick, available - pick - 1);
+                        available--;
+                    }
+                }
+            }
+            partialSize = 0;
+            removedCount = 0;
+            for (int p = 0; p < sequence.length; p++) {
+                if (isRemoved[p]) {
+                    removed[removedCount++] = sequence[p];
+                } else {
+                    partial[partialSize++] = sequence[p];
+                }
+            }
+        }
+
+        /**
+         * Dystans zaoszczędzony przez usunięcie każdego zlecenia z jego trasy.
+         */
+        private void computeDetours(int[] sequence) {
+            for (int p = 0; p < sequence.length; p++) {
+                int gene = sequence[p];
+                if (gene < 0) {
+                    continue;
+                }
+                int previous = p > 0 && sequence[p - 1] >= 0 ? sequence[p - 1] + 1 : 0;
+                int next = p + 1 < sequence.length && sequence[p + 1] >= 0 ? sequence[p + 1] + 1 : 0;
+                detours[p] = insertionCost(previous, gene + 1, next);
+            }
+        }
+
+        private double insertionCost(int previous, int location, int next) {
+            return matrix.distance(previous, location) + matrix.distance(location, location)
+                    + matrix.distance(location, next) - matrix.distance(previous, next);
+        }
+
+        /**
+         * Wstawia usunięte zlecenia w losowej kolejności, każde w najtańszą pozycję zachowującą
+         * dopuszczalność częściowego rozwiązania, i zapisuje pełny genom do {@code target}.
+         */
+        void repair(int operator, int[] target) {
+            double noise = operator == REPAIR_NOISY_GREEDY ? INSERTION_NOISE : 0.0;
+            for (int i = removedCount - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int order = removed[j];
+                removed[j] = removed[i];
+                removed[i] = order;
+            }
+            for (int r = 0; r < removedCount; r++) {
+                insert(removed[r], noise);
+            }
+            System.arraycopy(partial, 0, target, 0, partialSize);
+        }
+
+        private void insert(int order, double noise) {
+            int location = order + 1;
+            int checks = 0;
+            for (int position = 0; position <= partialSize; position++) {
+                int previous = position > 0 && partial[position - 1] >= 0 ? partial[position - 1] + 1 : 0;
+                int next = position < partialSize && partial[position] >= 0 ? partial[position] + 1 : 0;
+                double cost = insertionCost(previous, location, next);
+                if (noise > 0) {
+                    cost *= 1 + noise * (2 * rnd.nextDouble() - 1);
+                }
+                // najtańsze pozycje utrzymywane w kolejności kosztu
+                if (checks < FEASIBILITY_CHECKS || cost < checkCosts[checks - 1]) {
+                    int k = checks < FEASIBILITY_CHECKS ? checks++ : checks - 1;
+                    while (k > 0 && checkCosts[k - 1] > cost) {
+                        checkCosts[k] = checkCosts[k - 1];
+                        checkPositions[k] = checkPositions[k - 1];
+                        k--;
+                    }
+                    checkCosts[k] = cost;
+                    checkPositions[k] = position;
+                }
+            }
+            int chosen = checkPositions[0];
+            for (int c = 0; c < checks; c++) {
+                int position = checkPositions[c];
+                System.arraycopy(partial, 0, trial, 0, position);
+                trial[position] = order;
+                System.arraycopy(partial, position, trial, position + 1, partialSize - position);
+                if (Calculator.isFeasible(Calculator.calculateFitness(trial, partialSize + 1, optimization, workspace))) {
+                    chosen = position;
+                    break;
+                }
+            }
+            System.arraycopy(partial, chosen, partial, chosen + 1, partialSize - chosen);
+            partial[chosen] = order;
+            partialSize++;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.optimizer.algorithm;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Wybór operatorów metodą ruletki z wagami dostosowywanymi do ich ostatnich sukcesów.
+ * Punkty zebrane w odcinku iteracji zastępują część wagi (współczynnik reakcji)
+ * średnią liczbą punktów na użycie.
+ */
+final class AdaptiveWeights {
+
+    // punkty za ruch, który dał nowy najlepszy wynik, poprawił bieżące rozwiązanie
+    // lub został przyjęty bez poprawy
+    static final double SCORE_NEW_BEST = 33;
+    static final double SCORE_IMPROVED = 9;
+    static final double SCORE_ACCEPTED = 13;
+
+    // operatory zachowują minimalną wagę, aby mogły wrócić do gry w dalszej części wyszukiwania
+    private static final double MIN_WEIGHT = 0.05;
+
+    private final double[] weights;
+    private final double[] scores;
+    private final int[] uses;
+    private final int segmentLength;
+    private final double reactionFactor;
+    private int segmentIterations;
+
+    AdaptiveWeights(int operators, int segmentLength, double reactionFactor) {
+        this.weights = new double[operators];
+        this.scores = new double[operators];
+        this.uses = new int[operators];
+        this.segmentLength = segmentLength;
+        this.reactionFactor = reactionFactor;
+        Arrays.fill(weights, 1.0);
+    }
+
+    int select(SplittableRandom rnd) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double pick = rnd.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    void use(int operator) {
+        uses[operator]++;
+    }
+
+    void score(int operator, double score) {
+        scores[operator] += score;
+    }
+
+    /**
+     * Kończy iterację; na końcu odcinka wagi są aktualizowane, a punkty zerowane.
+     */
+    void endIteration() {
+        if (++segmentIterations < segmentLength) {
+            return;
+        }
+        segmentIterations = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (uses[i] > 0) {
+                weights[i] = Math.max(MIN_WEIGHT, (1 - reactionFactor) * weights[i] + reactionFactor * scores[i] / uses[i]);
+            }
+        }
+        Arrays.fill(scores, 0);
+        Arrays.fill(uses, 0);
+    }
+}
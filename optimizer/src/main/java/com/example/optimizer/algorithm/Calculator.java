@@ -6,122 +6,189 @@ import java.util.*;
 
 public class Calculator {
 
-    private static final List<VehicleType> VEHICLE_TYPES = Arrays.asList(VehicleType.values());
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
     private static final int SERVICE_TIME_MINUTES = 15;
 
+    /**
+     * Dolna granica oceny rozwiązania niedopuszczalnego. Ocena takiego rozwiązania to ta granica plus dystans
+     * i kara za stopień niedopuszczalności, więc każde rozwiązanie dopuszczalne jest lepsze od niedopuszczalnego,
+     * a przeszukiwanie wśród niedopuszczalnych zmierza do mniejszego naruszenia.
+     */
+    public static final double INFEASIBLE_FITNESS = 1e12;
+    // kara za minutę tras ponad najdłuższą dostępną zmianę lub bez kierowcy i pojazdu
+    private static final double PENALTY_PER_MINUTE = 10.0;
+
     public static double calculateFitness(Solution solution, RunningOptimization optimization) {
+        return calculateFitness(solution.getSequence(), optimization, EvaluationWorkspace.current(optimization));
+    }
+
+    public static double calculateFitness(int[] sequence, RunningOptimization optimization, EvaluationWorkspace workspace) {
+        return calculateFitness(sequence, sequence.length, optimization, workspace);
+    }
+
+    /**
+     * Ocena rozwiązania zapisanego w pierwszych {@code length} genach tablicy, np. częściowego rozwiązania
+     * z usuniętymi zleceniami.
+     */
+    public static double calculateFitness(int[] sequence, int length, RunningOptimization optimization, EvaluationWorkspace workspace) {
+        double distance = calculateDurations(sequence, length, optimization, workspace);
+        return evaluateRoutes(workspace, distance);
+    }
 
-        var pair = calculateDurations(solution, optimization);
-        List<Double> routeDistances = pair.first;
-        List<Double> routeDurations = pair.second;
+    /**
+     * Czy ocena dotyczy rozwiązania dopuszczalnego (każda niepusta trasa ma kierowcę i pojazd).
+     */
+    public static boolean isFeasible(double fitness) {
+        return fitness < INFEASIBLE_FITNESS;
+    }
+
+    /**
+     * Ocena tras zapisanych w buforze (czasy, minimalne typy pojazdów) o łącznym dystansie {@code distance}.
+     * Trasa dłuższa niż najdłuższa zmiana kierowcy z prawem jazdy na pojazd jej klasy wagowej przesądza
+     * o niedopuszczalności, więc wtedy przydział kierowców i pojazdów jest pomijany, a karane są minuty ponad limit.
+     * Trasa ze zleceniem cięższym niż ładowność każdego typu pojazdu ma limit 0, więc karany jest cały jej czas.
+     * W przeciwnym razie karane są minuty tras, którym przydział nie dał kierowcy lub pojazdu.
+     */
+    static double evaluateRoutes(EvaluationWorkspace workspace, double distance) {
+        double[] routeDurations = workspace.routeDurations;
+        double[] shiftLimitMinutes = workspace.shiftLimitMinutes;
+        workspace.evaluations++;
+        double excess = 0.0;
+        for (int r = 0; r < workspace.routeCount; r++) {
+            double overLimit = routeDurations[r] - shiftLimitMinutes[workspace.routeMinVehicleType[r]];
+            if (routeDurations[r] > 0.0 && overLimit > 0.0) {
+                excess += overLimit;
+            }
+        }
+        if (excess > 0.0) {
+            return INFEASIBLE_FITNESS + distance + PENALTY_PER_MINUTE * excess;
+        }
 
-        var driversAndVehicles = assignDriversAndVehicles(solution, routeDurations, optimization);
-        if (driversAndVehicles.size() < routeDistances.size()) {
-            return Double.MAX_VALUE;
+        if (assignDriversAndVehicles(workspace) == workspace.routeCount) {
+            workspace.feasibleEvaluations++;
+            return distance;
         }
-        double fitness = 0.0;
-        for (int i = 0; i < routeDistances.size(); i++) {
-            fitness += routeDistances.get(i);
+        double unassigned = 0.0;
+        for (int r = 0; r < workspace.routeCount; r++) {
+            if (workspace.routeDriver[r] < 0 && routeDurations[r] > 0.0) {
+                unassigned += routeDurations[r];
+            }
         }
-        return fitness;
+        return INFEASIBLE_FITNESS + distance + PENALTY_PER_MINUTE * unassigned;
     }
 
-    private static Pair<List<Double>, List<Double>> calculateDurations(Solution solution, RunningOptimization optimization) {
+    /**
+     * Wylicza dystans, czas i minimalny typ pojazdu każdej trasy w jednym przejściu.
+     *
+     * @return łączny dystans tras
+     */
+    private static double calculateDurations(int[] sequence, int length, RunningOptimization optimization, EvaluationWorkspace workspace) {
+        workspace.ensureRouteCapacity(countRoutes(sequence, length));
+        double[] routeDistances = workspace.routeDistances;
+        double[] routeDurations = workspace.routeDurations;
+        int[] routeMinVehicleType = workspace.routeMinVehicleType;
+        FleetIndex fleet = workspace.fleet;
+        TravelMatrix matrix = optimization.getTravelMatrix();
+
         int currentLocation = 0;
         double distance = 0.0;
         double duration = 0.0;
-        List<Double> routeDistances = new ArrayList<>();
-        List<Double> routeDurations = new ArrayList<>();
-        var sequence = solution.getSequence();
-        var distanceMatrix = optimization.getDistanceMatrix();
-        var durationMatrix = optimization.getDurationMatrix();
-        for (int i = 0; i < sequence.size(); i++) {
-            int gene = sequence.get(i);
+        int minVehicleType = 0;
+        double total = 0.0;
+        int route = 0;
+        for (int p = 0; p < length; p++) {
+            int gene = sequence[p];
             if (gene < 0) {
-                distance += distanceMatrix[currentLocation][0];
-                duration += durationMatrix[currentLocation][0];
-                routeDistances.add(distance);
-                routeDurations.add(duration);
+                distance += matrix.distance(currentLocation, 0);
+                duration += matrix.duration(currentLocation, 0);
+                routeDistances[route] = distance;
+                routeDurations[route] = duration;
+                routeMinVehicleType[route] = minVehicleType;
+                total += distance;
+                route++;
                 distance = 0.0;
                 duration = 0.0;
+                minVehicleType = 0;
                 currentLocation = 0;
             } else {
-                distance += distanceMatrix[currentLocation][gene + 1] + distanceMatrix[gene+1][gene+1];
-                duration += durationMatrix[currentLocation][gene + 1] + durationMatrix[gene+1][gene+1] + SERVICE_TIME_MINUTES * 2;
+                distance += matrix.distance(currentLocation, gene + 1) + matrix.distance(gene + 1, gene + 1);
+                duration += matrix.duration(currentLocation, gene + 1) + matrix.duration(gene + 1, gene + 1) + SERVICE_TIME_MINUTES * 2;
+                minVehicleType = Math.max(minVehicleType, fleet.orderMinVehicleType(gene));
                 currentLocation = gene + 1;
             }
         }
-        distance += distanceMatrix[currentLocation][0];
-        duration += durationMatrix[currentLocation][0];
-        routeDistances.add(distance);
-        routeDurations.add(duration);
-        return new Pair<>(routeDistances, routeDurations);
+        distance += matrix.distance(currentLocation, 0);
+        duration += matrix.duration(currentLocation, 0);
+        routeDistances[route] = distance;
+        routeDurations[route] = duration;
+        routeMinVehicleType[route] = minVehicleType;
+        workspace.routeCount = route + 1;
+        return total + distance;
     }
 
-    private static List<Pair<Long, Long>> assignDriversAndVehicles(Solution solution, List<Double> routeDurations, RunningOptimization optimization) {
-        List<Pair<Long, Long>> assignments = new ArrayList<>();
-        List<Driver> drivers = new ArrayList<>(optimization.getDrivers());
-        drivers.sort(Comparator.comparingInt(d -> (d.getWorkEnd().toSecondOfDay() - d.getWorkStart().toSecondOfDay())));
-        List<Integer> minVehicleTypeIndexes = getMinVehicleTypeIndexes(solution, optimization.getOrders());
-
-        HashMap<VehicleType, List<Long>> vehicleTypeToVehicleIds = new HashMap<>();
-        for (var vehicle : optimization.getVehicles()) {
-            vehicleTypeToVehicleIds
-                    .computeIfAbsent(vehicle.getVehicleType(), k -> new ArrayList<>())
-                    .add(vehicle.getId());
+    private static int countRoutes(int[] sequence, int length) {
+        int routes = 1;
+        for (int p = 0; p < length; p++) {
+            if (sequence[p] < 0) {
+                routes++;
+            }
         }
+        return routes;
+    }
 
-        int routeIndex = 0;
-        for (var duration : routeDurations) {
+    /**
+     * Zachłannie przypisuje trasom kierowców (od najkrótszej zmiany) i pojazdy (od najmniejszego typu).
+     * Kierowcy z wystarczająco długą zmianą i prawem jazdy na typ wyszukiwani są w zbiorach bitowych {@link FleetIndex}.
+     * Wynik trafia do {@code routeDriver}/{@code routeVehicleType} bufora.
+     *
+     * @return liczba tras, które są puste lub otrzymały kierowcę i pojazd
+     */
+    static int assignDriversAndVehicles(EvaluationWorkspace workspace) {
+        FleetIndex fleet = workspace.fleet;
+        long[] driverUsed = workspace.driverUsed;
+        int[] vehicleCursor = workspace.vehicleCursor;
+        Arrays.fill(driverUsed, 0L);
+        Arrays.fill(vehicleCursor, 0);
+
+        int assigned = 0;
+        for (int routeIndex = 0; routeIndex < workspace.routeCount; routeIndex++) {
+            workspace.routeDriver[routeIndex] = -1;
+            workspace.routeVehicleType[routeIndex] = -1;
+            double duration = workspace.routeDurations[routeIndex];
             if (duration <= 0.0) {
-                routeIndex++;
-                assignments.add(new Pair<>(null, null));
+                assigned++;
                 continue;
             }
-            int minVehicleTypeIndex = minVehicleTypeIndexes.get(routeIndex);
-            boolean driverFound = false;
-            for (int vtIndex = minVehicleTypeIndex; vtIndex < VEHICLE_TYPES.size(); vtIndex++) {
-                if (!vehicleTypeToVehicleIds.containsKey(VEHICLE_TYPES.get(vtIndex)) ||
-                        vehicleTypeToVehicleIds.get(VEHICLE_TYPES.get(vtIndex)).isEmpty()) {
+            int firstDriver = fleet.firstDriverWithShift(duration * 60);
+            for (int vtIndex = workspace.routeMinVehicleType[routeIndex]; vtIndex < VEHICLE_TYPES.length; vtIndex++) {
+                if (vehicleCursor[vtIndex] >= fleet.vehicleCount(vtIndex)) {
                     continue;
                 }
-                for (Driver driver : drivers) {
-                    VehicleType vehicleType = VEHICLE_TYPES.get(vtIndex);
-                    if (driver.getLicences().contains(vehicleType) &&
-                            (driver.getWorkEnd().toSecondOfDay() - driver.getWorkStart().toSecondOfDay()) >= duration * 60) {
-                        // kierowca może obsłużyć trasę
-                        assignments.add(new Pair<>(driver.getId(), vehicleTypeToVehicleIds.get(vehicleType).remove(0)));
-                        drivers.remove(driver);
-                        driverFound = true;
-                        break;
-                    }
-                }
-                if (driverFound) {
+                int driver = fleet.findDriver(vtIndex, firstDriver, driverUsed);
+                if (driver >= 0) {
+                    // kierowca może obsłużyć trasę
+                    workspace.routeDriver[routeIndex] = driver;
+                    workspace.routeVehicleType[routeIndex] = vtIndex;
+                    vehicleCursor[vtIndex]++;
+                    driverUsed[driver >>> 6] |= 1L << driver;
+                    assigned++;
                     break;
                 }
             }
-            routeIndex++;
         }
-        return assignments;
+        return assigned;
     }
 
-    public record Pair<T, U>(T first, U second) {}
-
     public static List<OptimizedRoute> solutionToOptimizedRoutes(Solution solution, RunningOptimization optimization) {
-        var pair = calculateDurations(solution, optimization);
-        List<Double> routeDistances = pair.first;
-        List<Double> routeDurations = pair.second;
-
-        var driversAndVehicles = assignDriversAndVehicles(solution, routeDurations, optimization);
-        if (driversAndVehicles.size() < routeDistances.size()) {
+        EvaluationWorkspace workspace = EvaluationWorkspace.current(optimization);
+        int[] sequence = solution.getSequence();
+        if (!isFeasible(calculateFitness(sequence, optimization, workspace))) {
             return null;
         }
 
         List<List<Long>> routeOrderIds = new ArrayList<>();
         List<Long> array = new ArrayList<>();
-        for (int i = 0; i < solution.getSequence().size(); i++)
-        {
-            int gene = solution.getSequence().get(i);
+        for (int gene : sequence) {
             if (gene < 0) {
                 routeOrderIds.add(array);
                 array = new ArrayList<>();
@@ -131,17 +198,22 @@ public class Calculator {
         }
         routeOrderIds.add(array);
 
+        // pojazdy wydawane w tej samej kolejności co w assignDriversAndVehicles
+        int[] vehicleCursor = new int[VEHICLE_TYPES.length];
         List<OptimizedRoute> optimizedRoutes = new ArrayList<>();
-        for (int i = 0; i < routeDistances.size(); i++) {
-            if (routeDistances.get(i) <= 0.0) {
+        for (int i = 0; i < workspace.routeCount; i++) {
+            int driver = workspace.routeDriver[i];
+            int vehicleType = workspace.routeVehicleType[i];
+            Long vehicleId = vehicleType >= 0 ? workspace.fleet.vehicleId(vehicleType, vehicleCursor[vehicleType]++) : null;
+            if (workspace.routeDistances[i] <= 0.0) {
                 continue;
             }
             OptimizedRoute optimizedRoute = OptimizedRoute.builder()
-                            .driverId(driversAndVehicles.get(i).first)
-                            .vehicleId(driversAndVehicles.get(i).second)
+                            .driverId(driver >= 0 ? workspace.fleet.driverId(driver) : null)
+                            .vehicleId(vehicleId)
                             .orderIdsOrdered(routeOrderIds.get(i))
-                            .estimatedTimeMinutes(routeDurations.get(i).intValue())
-                            .totalDistance(routeDistances.get(i))
+                            .estimatedTimeMinutes((int) workspace.routeDurations[i])
+                            .totalDistance(workspace.routeDistances[i])
                             .build();
 
             optimizedRoutes.add(optimizedRoute);
@@ -149,22 +221,4 @@ public class Calculator {
         return optimizedRoutes;
     }
 
-
-    private static List<Integer> getMinVehicleTypeIndexes(Solution solution, List<Order> orders) {
-        int minIndex = 0;
-        List<Integer> minIndexes = new ArrayList<>();
-        for (int i = 0; i < solution.getSequence().size(); i++) {
-            if (solution.getSequence().get(i) < 0) {
-                minIndexes.add(minIndex);
-                minIndex = 0;
-                continue;
-            }
-            Order order = orders.get(solution.getSequence().get(i));
-            while (order.getCargoWeight() > VEHICLE_TYPES.get(minIndex).getMaxWeight()) {
-                minIndex++;
-            }
-        }
-        minIndexes.add(minIndex);
-        return minIndexes;
-    }
 }
@@ -0,0 +1,258 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.*;
+
+import java.util.*;
+
+/**
+ * Dekompozycja dużych instancji: najpierw klastry, potem trasy. Zlecenia są grupowane w klastry po około
+ * {@code clusterSize} zleceń według kąta wokół bazy ({@link RouteConstruction#angles}). Każdy klaster staje się
+ * niezależnym podproblemem z własną częścią floty: miejsca na trasy są dzielone proporcjonalnie do wielkości
+ * klastrów, a pojazdy, od największych, trafiają do klastrów z największą liczbą zleceń z wymagającej ich
+ * klasy wagowej, każdy z kierowcą uprawnionym do jego prowadzenia.
+ * Najlepsze rozwiązania podproblemów są łączone w jeden genom, który wyszukiwanie globalne poprawia następnie
+ * ponad granicami klastrów.
+ */
+final class ClusterDecomposition {
+
+    // konstrukcja raportowana, gdy trajektorie startują z połączonych rozwiązań klastrów
+    static final String LABEL = "decomposition";
+
+    private final RunningOptimization optimization;
+    private final FleetIndex fleet;
+    private final int orderCount;
+    // klastry jako listy indeksów zleceń całego problemu
+    private final int[][] clusters;
+
+    private ClusterDecomposition(RunningOptimization optimization, int clusterCount) {
+        this.optimization = optimization;
+        this.fleet = EvaluationWorkspace.current(optimization).fleet;
+        this.orderCount = optimization.getOrders().size();
+        this.clusters = cluster(clusterCount);
+    }
+
+    /**
+     * @return dekompozycja lub null, jeśli instancja nie jest większa niż jeden klaster albo ma mniej niż dwa
+     * miejsca na trasy; klastrów nigdy nie jest więcej niż miejsc na trasy
+     */
+    static ClusterDecomposition of(RunningOptimization optimization, int clusterSize) {
+        int orders = optimization.getOrders().size();
+        if (clusterSize <= 0 || orders <= clusterSize) {
+            return null;
+        }
+        int clusterCount = Math.min((orders + clusterSize - 1) / clusterSize, MetaheuristicOptimizer.groupCount(optimization));
+        return clusterCount >= 2 ? new ClusterDecomposition(optimization, clusterCount) : null;
+    }
+
+    int clusterCount() {
+        return clusters.length;
+    }
+
+    /**
+     * Buduje podproblemy, po jednym na klaster, z macierzą ograniczoną do bazy i zleceń klastra
+     * oraz flotą podzieloną między klastry.
+     */
+    List<RunningOptimization> subProblems() {
+        int clusterCount = clusters.length;
+        int[] slots = routeSlots();
+
+        // demand[c][vt]: zlecenia klastra c wymagające co najmniej typu pojazdu vt
+        int vehicleTypes = VehicleType.values().length;
+        int[][] demand = new int[clusterCount][vehicleTypes];
+        for (int c = 0; c < clusterCount; c++) {
+            for (int order : clusters[c]) {
+                for (int vt = 0; vt <= Math.min(fleet.orderMinVehicleType(order), vehicleTypes - 1); vt++) {
+                    demand[c][vt]++;
+                }
+            }
+        }
+
+        List<Vehicle> vehicles = new ArrayList<>(optimization.getVehicles());
+        vehicles.sort(Comparator.comparingInt((Vehicle vehicle) -> -vehicle.getVehicleType().ordinal())
+                .thenComparing(Vehicle::getId));
+        List<Driver> drivers = new ArrayList<>(optimization.getDrivers());
+        drivers.sort(Comparator.comparingInt((Driver driver) -> -highestLicence(driver))
+                .thenComparingInt(driver -> -(driver.getWorkEnd().toSecondOfDay() - driver.getWorkStart().toSecondOfDay()))
+                .thenComparing(Driver::getId));
+
+        // najpierw największe pojazdy, każdy do klastra z największą liczbą wymagających go zleceń
+        // na pojazd zdolny je przewieźć
+        List<Set<Vehicle>> clusterVehicles = new ArrayList<>(clusterCount);
+        List<Set<Driver>> clusterDrivers = new ArrayList<>(clusterCount);
+        for (int c = 0; c < clusterCount; c++) {
+            clusterVehicles.add(new LinkedHashSet<>());
+            clusterDrivers.add(new LinkedHashSet<>());
+        }
+        int[][] covering = new int[clusterCount][vehicleTypes];
+        for (Vehicle vehicle : vehicles) {
+            int type = vehicle.getVehicleType().ordinal();
+            int best = -1;
+            double bestScore = 0;
+            for (int c = 0; c < clusterCount; c++) {
+                int free = slots[c] - clusterVehicles.get(c).size();
+                if (free == 0) {
+                    continue;
+                }
+                double score = demand[c][type] / (covering[c][type] + 1.0);
+                if (best < 0 || score > bestScore
+                        || (score == bestScore && free > slots[best] - clusterVehicles.get(best).size())) {
+                    best = c;
+                    bestScore = score;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            clusterVehicles.get(best).add(vehicle);
+            clusterDrivers.get(best).add(takeDriver(drivers, vehicle.getVehicleType()));
+            for (int vt = 0; vt <= type; vt++) {
+                covering[best][vt]++;
+            }
+        }
+
+        List<Order> orders = optimization.getOrders();
+        List<RunningOptimization> subProblems = new ArrayList<>(clusterCount);
+        for (int c = 0; c < clusterCount; c++) {
+            int[] cluster = clusters[c];
+            List<Order> clusterOrders = new ArrayList<>(cluster.length);
+            int[] locations = new int[cluster.length + 1];
+            for (int i = 0; i < cluster.length; i++) {
+                clusterOrders.add(orders.get(cluster[i]));
+                locations[i + 1] = cluster[i] + 1;
+            }
+            TravelMatrix subMatrix = optimization.getTravelMatrix().subMatrix(locations);
+            subProblems.add(RunningOptimization.builder()
+                    .id(optimization.getId())
+                    .status(OptimizationStatus.IN_PROGRESS)
+                    .drivers(clusterDrivers.get(c))
+                    .vehicles(clusterVehicles.get(c))
+                    .orders(clusterOrders)
+                    .travelMatrix(subMatrix)
+                    .fleetIndex(FleetIndex.of(clusterDrivers.get(c), clusterVehicles.get(c), clusterOrders))
+                    .neighborList(NeighborList.of(subMatrix, cluster.length, optimization.getSettings().getNeighborCount()))
+                    .settings(optimization.getSettings())
+                    .build());
+        }
+        return subProblems;
+    }
+
+    /**
+     * Łączy najlepsze rozwiązania podproblemów (w kolejności {@link #subProblems()}) w genom całego problemu.
+     * Podproblem bez rozwiązania wnosi swoje zlecenia jako jedną trasę.
+     */
+    Solution join(List<Solution> solutions) {
+        List<int[]> routes = new ArrayList<>();
+        for (int c = 0; c < clusters.length; c++) {
+            int[] cluster = clusters[c];
+            Solution solution = solutions.get(c);
+            if (solution == null) {
+                routes.add(cluster.clone());
+                continue;
+            }
+            int[] route = new int[cluster.length];
+            int length = 0;
+            for (int gene : solution.getSequence()) {
+                if (gene >= 0) {
+                    route[length++] = cluster[gene];
+                } else if (length > 0) {
+                    routes.add(Arrays.copyOf(route, length));
+                    length = 0;
+                }
+            }
+            if (length > 0) {
+                routes.add(Arrays.copyOf(route, length));
+            }
+        }
+        return new RouteConstruction(optimization, null).toSolution(routes.toArray(new int[0][]));
+    }
+
+    /**
+     * Miejsca na trasy (pary kierowca i pojazd) każdego klastra proporcjonalnie do liczby zleceń, co najmniej
+     * jedno na klaster, metodą największych reszt.
+     */
+    private int[] routeSlots() {
+        int clusterCount = clusters.length;
+        int groupCount = MetaheuristicOptimizer.groupCount(optimization);
+        int[] slots = new int[clusterCount];
+        double[] remainder = new double[clusterCount];
+        int assigned = 0;
+        for (int c = 0; c < clusterCount; c++) {
+            double share = (double) (groupCount - clusterCount) * clusters[c].length / orderCount;
+            slots[c] = 1 + (int) share;
+            remainder[c] = share - (int) share;
+            assigned += slots[c];
+        }
+        while (assigned < groupCount) {
+            int largest = 0;
+            for (int c = 1; c < clusterCount; c++) {
+                if (remainder[c] > remainder[largest]) {
+                    largest = c;
+                }
+            }
+            slots[largest]++;
+            remainder[largest] = -1;
+            assigned++;
+        }
+        return slots;
+    }
+
+    /**
+     * Usuwa i zwraca pierwszego kierowcę (w kolejności {@code drivers}) z uprawnieniami na typ pojazdu
+     * lub pierwszego kierowcę, jeśli nikt ich nie ma.
+     */
+    private static Driver takeDriver(List<Driver> drivers, VehicleType type) {
+        for (Iterator<Driver> iterator = drivers.iterator(); iterator.hasNext(); ) {
+            Driver driver = iterator.next();
+            if (driver.getLicences() != null && driver.getLicences().contains(type)) {
+                iterator.remove();
+                return driver;
+            }
+        }
+        return drivers.remove(0);
+    }
+
+    private static int highestLicence(Driver driver) {
+        int highest = -1;
+        if (driver.getLicences() != null) {
+            for (VehicleType type : driver.getLicences()) {
+                highest = Math.max(highest, type.ordinal());
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * Sektory wokół bazy z równą liczbą zleceń. Trasy zaczynają się i kończą w bazie, więc sektor mieści
+     * całe trasy dobrego planu, a każdy zwarty klaster z dala od bazy płaciłby za dojazd do niego.
+     */
+    private int[][] cluster(int clusterCount) {
+        double[] angles = new RouteConstruction(optimization, null).angles();
+        Integer[] byAngle = new Integer[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            byAngle[i] = i;
+        }
+        Arrays.sort(byAngle, Comparator.comparingDouble(i -> angles[i]));
+        int[] assignment = new int[orderCount];
+        for (int rank = 0; rank < orderCount; rank++) {
+            assignment[byAngle[rank]] = (int) ((long) rank * clusterCount / orderCount);
+        }
+        return members(assignment, clusterCount);
+    }
+
+    private int[][] members(int[] assignment, int clusterCount) {
+        int[] sizes = new int[clusterCount];
+        for (int c : assignment) {
+            sizes[c]++;
+        }
+        int[][] members = new int[clusterCount][];
+        for (int c = 0; c < clusterCount; c++) {
+            members[c] = new int[sizes[c]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < orderCount; i++) {
+            int c = assignment[i];
+            members[c][sizes[c]++] = i;
+        }
+        return members;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.RunningOptimization;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sposób budowy rozwiązania początkowego trajektorii, wybierany przez {@code settings.construction}.
+ */
+enum ConstructionHeuristic {
+
+    /**
+     * Losowa permutacja zleceń i separatorów; bez generatora permutacja ze stałego ziarna.
+     */
+    RANDOM("random") {
+        @Override
+        Solution build(RunningOptimization optimization, SplittableRandom rnd) {
+            return new Solution(optimization.getOrders().size(), MetaheuristicOptimizer.groupCount(optimization),
+                    rnd != null ? rnd : new SplittableRandom(DETERMINISTIC_SEED));
+        }
+    },
+
+    SAVINGS("savings") {
+        @Override
+        Solution build(RunningOptimization optimization, SplittableRandom rnd) {
+            return new RouteConstruction(optimization, rnd).savings();
+        }
+    },
+
+    SWEEP("sweep") {
+        @Override
+        Solution build(RunningOptimization optimization, SplittableRandom rnd) {
+            return new RouteConstruction(optimization, rnd).sweep();
+        }
+    },
+
+    REGRET("regret") {
+        @Override
+        Solution build(RunningOptimization optimization, SplittableRandom rnd) {
+            return new RouteConstruction(optimization, rnd).regret();
+        }
+    };
+
+    // ziarno konstrukcji losowej, gdy nie podano generatora
+    private static final long DETERMINISTIC_SEED = 0L;
+
+    private final String label;
+
+    ConstructionHeuristic(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    /**
+     * Buduje rozwiązanie początkowe; bez {@link SplittableRandom} konstrukcja jest deterministyczna.
+     */
+    abstract Solution build(RunningOptimization optimization, SplittableRandom rnd);
+
+    /**
+     * @return heurystyka o podanej nazwie lub null, jeśli takiej nie ma
+     */
+    static ConstructionHeuristic of(String label) {
+        for (ConstructionHeuristic heuristic : values()) {
+            if (heuristic.label.equals(label)) {
+                return heuristic;
+            }
+        }
+        return null;
+    }
+}
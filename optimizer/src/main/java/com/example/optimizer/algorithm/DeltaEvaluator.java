@@ -0,0 +1,330 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.FleetIndex;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.TravelMatrix;
+
+/**
+ * Przyrostowa ocena ruchów dla jednego rozwiązania: zamian dwóch pozycji oraz dowolnych permutacji
+ * spójnego zakresu pozycji (przeniesienia, odwrócenia, wymiany segmentów).
+ * Przechowuje dystans, czas i minimalny typ pojazdu każdej trasy (segmentu między genami ujemnymi),
+ * a dla kandydata przelicza tylko trasy, które ruch zmienia: przy zamianie dwóch zleceń jedną lub dwie trasy
+ * zawierające zamieniane pozycje, przy przesunięciu separatora lub permutacji zakresu trasy od pierwszej
+ * do ostatniej objętej ruchem. Przydział kierowców i pojazdów jest powtarzany na zbuforowanych podsumowaniach
+ * tras, więc koszt zamiany zleceń to O(długość dwóch tras + liczba tras).
+ */
+public final class DeltaEvaluator {
+
+    private static final int SERVICE_TIME_MINUTES = 15;
+
+    private final RunningOptimization optimization;
+    private final EvaluationWorkspace workspace;
+    private final Solution solution;
+    private final int[] sequence;
+
+    // trasa, do której należy pozycja; separator należy do trasy, którą zamyka
+    private final int[] positionRoute;
+    // pozycja każdego zlecenia w genomie
+    private final int[] orderPosition;
+    private int[] routeStart;
+    private double[] routeDistance;
+    private double[] routeDuration;
+    private int[] routeMinVehicleType;
+    private int routeCount;
+    private double fitness;
+
+    // wynik ostatniej oceny kandydata dla tras firstRoute..lastRoute i trasy extraRoute (-1, gdy brak)
+    private double[] candidateDistance;
+    private double[] candidateDuration;
+    private int[] candidateMinVehicleType;
+    private int firstRoute;
+    private int lastRoute;
+    private int extraRoute = -1;
+
+    // geny zastępujące pozycje overlayFrom..overlayTo w ocenianym ruchu; overlayTo = -1, gdy brak
+    private int[] overlay;
+    private int overlayFrom;
+    private int overlayTo = -1;
+
+    public DeltaEvaluator(Solution solution, RunningOptimization optimization) {
+        this.optimization = optimization;
+        this.workspace = EvaluationWorkspace.current(optimization);
+        this.solution = solution;
+        this.sequence = solution.getSequence();
+        this.positionRoute = new int[sequence.length];
+        this.orderPosition = new int[optimization.getOrders().size()];
+        reload();
+    }
+
+    /**
+     * Pełne przeliczenie buforów, np. po zmianie rozwiązania z zewnątrz.
+     */
+    public void reload() {
+        routeCount = 1;
+        for (int gene : sequence) {
+            if (gene < 0) {
+                routeCount++;
+            }
+        }
+        routeStart = new int[routeCount];
+        routeDistance = new double[routeCount];
+        routeDuration = new double[routeCount];
+        routeMinVehicleType = new int[routeCount];
+        candidateDistance = new double[routeCount];
+        candidateDuration = new double[routeCount];
+        candidateMinVehicleType = new int[routeCount];
+
+        firstRoute = 0;
+        lastRoute = routeCount - 1;
+        extraRoute = -1;
+        scan(firstRoute, lastRoute, -1, -1);
+        commitCandidate();
+        indexPositions(0, sequence.length - 1);
+        fitness = assign(false);
+    }
+
+    public Solution getSolution() {
+        return solution;
+    }
+
+    public double fitness() {
+        return fitness;
+    }
+
+    /**
+     * Stały identyfikator trasy zawierającej pozycję: gen separatora zamykającego trasę lub 0 dla ostatniej trasy.
+     * W przeciwieństwie do numeru trasy nie zmienia się, gdy inne trasy rosną lub maleją.
+     */
+    public int routeLabel(int position) {
+        int end = routeEnd(positionRoute[position]);
+        return sequence[end] < 0 ? sequence[end] : 0;
+    }
+
+    public int routeCount() {
+        return routeCount;
+    }
+
+    /**
+     * Numer trasy zawierającej pozycję; separator należy do trasy, którą zamyka.
+     */
+    public int routeOf(int position) {
+        return positionRoute[position];
+    }
+
+    public int positionOf(int order) {
+        return orderPosition[order];
+    }
+
+    public int routeStart(int route) {
+        return routeStart[route];
+    }
+
+    /**
+     * Ostatnia pozycja trasy, razem z zamykającym ją separatorem.
+     */
+    public int routeEnd(int route) {
+        return route + 1 < routeCount ? routeStart[route + 1] - 1 : sequence.length - 1;
+    }
+
+    /**
+     * Ocenia rozwiązanie po zamianie genów na pozycjach a i b, nie zmieniając bieżącego rozwiązania.
+     */
+    public double evaluateSwap(int a, int b) {
+        if (!prepareSwap(a, b)) {
+            return fitness;
+        }
+        return assign(true);
+    }
+
+    /**
+     * Wykonuje zamianę genów na pozycjach a i b i aktualizuje bufory tras.
+     *
+     * @return wartość funkcji celu po zamianie
+     */
+    public double applySwap(int a, int b) {
+        if (!prepareSwap(a, b)) {
+            solution.swap(a, b);
+            return fitness;
+        }
+        fitness = assign(true);
+        solution.swap(a, b);
+        commitCandidate();
+        if (sequence[a] >= 0 && sequence[b] >= 0) {
+            // trasy zachowują granice, zmieniają się tylko pozycje dwóch zleceń
+            orderPosition[sequence[a]] = a;
+            orderPosition[sequence[b]] = b;
+        } else {
+            indexPositions(routeStart[firstRoute], routeEnd(lastRoute));
+        }
+        return fitness;
+    }
+
+    /**
+     * Wyznacza trasy objęte zamianą i przelicza je do buforów kandydata. Zamiana dwóch zleceń zmienia tylko
+     * ich trasy; trasy między nimi zachowują zbuforowane podsumowania.
+     *
+     * @return false, jeśli zamiana nie zmienia tras (te same pozycje lub dwa separatory)
+     */
+    private boolean prepareSwap(int a, int b) {
+        if (a == b || (sequence[a] < 0 && sequence[b] < 0)) {
+            return false;
+        }
+        int routeA = positionRoute[a];
+        int routeB = positionRoute[b];
+        if (sequence[a] >= 0 && sequence[b] >= 0) {
+            firstRoute = routeA;
+            lastRoute = routeA;
+            extraRoute = routeB != routeA ? routeB : -1;
+            scan(routeA, routeA, a, b);
+            if (extraRoute >= 0) {
+                scan(extraRoute, extraRoute, a, b);
+            }
+            return true;
+        }
+        extraRoute = -1;
+        firstRoute = Math.min(routeA, routeB);
+        lastRoute = Math.max(routeA, routeB);
+        if ((sequence[a] < 0 || sequence[b] < 0) && lastRoute + 1 < routeCount) {
+            // przesunięty separator może połączyć ostatnią trasę zakresu z następną
+            lastRoute++;
+        }
+        scan(firstRoute, lastRoute, a, b);
+        return true;
+    }
+
+    /**
+     * Ocenia rozwiązanie, w którym pozycje from..to zajmują geny {@code genes[0..to-from]}, nie zmieniając
+     * bieżącego rozwiązania. Geny muszą być permutacją genów z tego zakresu.
+     */
+    public double evaluateMove(int from, int to, int[] genes) {
+        prepareMove(from, to, genes);
+        return assign(true);
+    }
+
+    /**
+     * Wstawia geny {@code genes[0..to-from]} na pozycje from..to i aktualizuje bufory tras.
+     *
+     * @return wartość funkcji celu po ruchu
+     */
+    public double applyMove(int from, int to, int[] genes) {
+        prepareMove(from, to, genes);
+        fitness = assign(true);
+        System.arraycopy(genes, 0, sequence, from, to - from + 1);
+        commitCandidate();
+        indexPositions(routeStart[firstRoute], routeEnd(lastRoute));
+        return fitness;
+    }
+
+    /**
+     * Permutacja zakresu nie zmienia liczby separatorów przed pozycją to+1, więc zmieniają się tylko trasy
+     * od trasy pozycji from do trasy pozycji to+1.
+     */
+    private void prepareMove(int from, int to, int[] genes) {
+        firstRoute = positionRoute[from];
+        lastRoute = to + 1 < sequence.length ? positionRoute[to + 1] : routeCount - 1;
+        extraRoute = -1;
+        overlay = genes;
+        overlayFrom = from;
+        overlayTo = to;
+        scan(firstRoute, lastRoute, -1, -1);
+        overlayTo = -1;
+    }
+
+    /**
+     * Przelicza trasy startRoute..endRoute (włącznie) do buforów kandydata, z wirtualnie zamienionymi genami
+     * a i b lub z genami ruchu nałożonymi na zakres overlayFrom..overlayTo.
+     */
+    private void scan(int startRoute, int endRoute, int a, int b) {
+        TravelMatrix matrix = optimization.getTravelMatrix();
+        FleetIndex fleet = workspace.fleet;
+        int from = routeStart[startRoute];
+        int to = routeEnd(endRoute);
+
+        int route = startRoute;
+        int currentLocation = 0;
+        double distance = 0.0;
+        double duration = 0.0;
+        int minVehicleType = 0;
+        for (int p = from; p <= to; p++) {
+            int gene = p >= overlayFrom && p <= overlayTo ? overlay[p - overlayFrom]
+                    : p == a ? sequence[b] : p == b ? sequence[a] : sequence[p];
+            if (gene < 0) {
+                distance += matrix.distance(currentLocation, 0);
+                duration += matrix.duration(currentLocation, 0);
+                candidateDistance[route] = distance;
+                candidateDuration[route] = duration;
+                candidateMinVehicleType[route] = minVehicleType;
+                route++;
+                distance = 0.0;
+                duration = 0.0;
+                minVehicleType = 0;
+                currentLocation = 0;
+            } else {
+                distance += matrix.distance(currentLocation, gene + 1) + matrix.distance(gene + 1, gene + 1);
+                duration += matrix.duration(currentLocation, gene + 1) + matrix.duration(gene + 1, gene + 1) + SERVICE_TIME_MINUTES * 2;
+                minVehicleType = Math.max(minVehicleType, fleet.orderMinVehicleType(gene));
+                currentLocation = gene + 1;
+            }
+        }
+        if (route == endRoute) {
+            // ostatnia trasa rozwiązania nie ma zamykającego separatora
+            distance += matrix.distance(currentLocation, 0);
+            duration += matrix.duration(currentLocation, 0);
+            candidateDistance[route] = distance;
+            candidateDuration[route] = duration;
+            candidateMinVehicleType[route] = minVehicleType;
+        }
+    }
+
+    private void commitCandidate() {
+        int length = lastRoute - firstRoute + 1;
+        System.arraycopy(candidateDistance, firstRoute, routeDistance, firstRoute, length);
+        System.arraycopy(candidateDuration, firstRoute, routeDuration, firstRoute, length);
+        System.arraycopy(candidateMinVehicleType, firstRoute, routeMinVehicleType, firstRoute, length);
+        if (extraRoute >= 0) {
+            routeDistance[extraRoute] = candidateDistance[extraRoute];
+            routeDuration[extraRoute] = candidateDuration[extraRoute];
+            routeMinVehicleType[extraRoute] = candidateMinVehicleType[extraRoute];
+        }
+    }
+
+    private void indexPositions(int from, int to) {
+        int route = firstRoute;
+        routeStart[route] = from;
+        for (int p = from; p <= to; p++) {
+            positionRoute[p] = route;
+            if (sequence[p] >= 0) {
+                orderPosition[sequence[p]] = p;
+            } else if (++route < routeCount) {
+                routeStart[route] = p + 1;
+            }
+        }
+    }
+
+    /**
+     * Ocenia wszystkie trasy, z podmienionymi trasami kandydata ({@link Calculator#evaluateRoutes}).
+     */
+    private double assign(boolean withCandidate) {
+        workspace.ensureRouteCapacity(routeCount);
+        System.arraycopy(routeDuration, 0, workspace.routeDurations, 0, routeCount);
+        System.arraycopy(routeMinVehicleType, 0, workspace.routeMinVehicleType, 0, routeCount);
+        if (withCandidate) {
+            int length = lastRoute - firstRoute + 1;
+            System.arraycopy(candidateDuration, firstRoute, workspace.routeDurations, firstRoute, length);
+            System.arraycopy(candidateMinVehicleType, firstRoute, workspace.routeMinVehicleType, firstRoute, length);
+            if (extraRoute >= 0) {
+                workspace.routeDurations[extraRoute] = candidateDuration[extraRoute];
+                workspace.routeMinVehicleType[extraRoute] = candidateMinVehicleType[extraRoute];
+            }
+        }
+        workspace.routeCount = routeCount;
+
+        double total = 0.0;
+        for (int r = 0; r < routeCount; r++) {
+            total += withCandidate && ((r >= firstRoute && r <= lastRoute) || r == extraRoute)
+                    ? candidateDistance[r] : routeDistance[r];
+        }
+        return Calculator.evaluateRoutes(workspace, total);
+    }
+
+}
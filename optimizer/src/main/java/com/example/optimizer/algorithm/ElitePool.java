@@ -0,0 +1,75 @@
+package com.example.optimizer.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Najlepsze rozwiązanie znalezione przez wszystkie trajektorie jednej optymalizacji.
+ */
+final class ElitePool {
+
+    private int[] bestSequence;
+    private double bestFitness = Double.MAX_VALUE;
+    // zwiększana przy każdej zmianie najlepszego rozwiązania
+    private long version;
+    // System.nanoTime() pierwszego dopuszczalnego rozwiązania; 0, dopóki go nie ma
+    private long firstFeasibleNanos;
+
+    /**
+     * Zapamiętuje rozwiązanie, jeśli jest lepsze od dotychczasowego (lub pierwsze). Z rozwiązań o równej ocenie
+     * zostaje leksykograficznie mniejszy genom, więc wynik nie zależy od kolejności zgłoszeń z różnych wątków.
+     *
+     * @return true, jeśli ocena najlepszego rozwiązania się poprawiła
+     */
+    synchronized boolean offer(Solution solution, double fitness) {
+        if (bestSequence == null || fitness < bestFitness
+                || (fitness == bestFitness && Arrays.compare(solution.getSequence(), bestSequence) < 0)) {
+            boolean improved = fitness < bestFitness;
+            bestSequence = solution.getSequence().clone();
+            bestFitness = fitness;
+            version++;
+            if (firstFeasibleNanos == 0 && Calculator.isFeasible(fitness)) {
+                firstFeasibleNanos = System.nanoTime();
+            }
+            return improved;
+        }
+        return false;
+    }
+
+    /**
+     * Kopiuje najlepsze rozwiązanie puli do target, jeśli jest lepsze niż podany fitness.
+     *
+     * @return true, jeśli target został nadpisany
+     */
+    synchronized boolean copyIfBetter(Solution target, double fitness) {
+        if (bestSequence == null || bestFitness >= fitness) {
+            return false;
+        }
+        System.arraycopy(bestSequence, 0, target.getSequence(), 0, bestSequence.length);
+        return true;
+    }
+
+    synchronized Solution best() {
+        return bestSequence != null ? new Solution(bestSequence) : null;
+    }
+
+    synchronized double bestFitness() {
+        return bestFitness;
+    }
+
+    synchronized long firstFeasibleNanos() {
+        return firstFeasibleNanos;
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Spójna kopia najlepszego rozwiązania razem z jego oceną i wersją.
+     */
+    synchronized Snapshot snapshot() {
+        return bestSequence != null ? new Snapshot(new Solution(bestSequence), bestFitness, version) : null;
+    }
+
+    record Snapshot(Solution solution, double fitness, long version) {}
+}
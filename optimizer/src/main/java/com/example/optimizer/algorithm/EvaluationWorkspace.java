@@ -0,0 +1,95 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.FleetIndex;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.VehicleType;
+
+import java.util.Arrays;
+
+/**
+ * Bufory wielokrotnego użytku dla {@link Calculator}, jeden na wątek.
+ * Po powiązaniu z optymalizacją ocena kolejnych rozwiązań nie alokuje pamięci na stercie.
+ */
+public final class EvaluationWorkspace {
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private static final ThreadLocal<EvaluationWorkspace> CURRENT = ThreadLocal.withInitial(EvaluationWorkspace::new);
+
+    private RunningOptimization optimization;
+
+    // indeks floty optymalizacji, współdzielony przez wszystkie wątki
+    FleetIndex fleet;
+
+    // stan bieżącej oceny
+    // najdłuższa zmiana (w minutach) kierowcy, który może poprowadzić trasę danej klasy wagowej; 0, gdy nikt,
+    // w tym dla klasy VEHICLE_TYPES.length (zlecenie cięższe niż ładowność każdego typu pojazdu)
+    double[] shiftLimitMinutes = new double[VEHICLE_TYPES.length + 1];
+    long[] driverUsed;
+    int[] vehicleCursor = new int[VEHICLE_TYPES.length];
+
+    int routeCount;
+    double[] routeDistances = new double[8];
+    double[] routeDurations = new double[8];
+    int[] routeMinVehicleType = new int[8];
+    int[] routeDriver = new int[8];
+    int[] routeVehicleType = new int[8];
+
+    // oceny rozwiązań w tym wątku (wszystkie i dopuszczalne) od ostatniego release(SearchContext),
+    // zliczane w Calculator.evaluateRoutes
+    long evaluations;
+    long feasibleEvaluations;
+
+    /**
+     * Zwraca bufor bieżącego wątku powiązany z podaną optymalizacją.
+     */
+    public static EvaluationWorkspace current(RunningOptimization optimization) {
+        EvaluationWorkspace workspace = CURRENT.get();
+        if (workspace.optimization != optimization) {
+            workspace.bind(optimization);
+        }
+        return workspace;
+    }
+
+    /**
+     * Zwalnia bufor bieżącego wątku, aby nie przetrzymywał danych zakończonej optymalizacji.
+     */
+    public static void release() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Zwalnia bufor bieżącego wątku jak {@link #release()}, wcześniej doliczając do kontekstu oceny rozwiązań
+     * wykonane w tym wątku.
+     */
+    static void release(SearchContext context) {
+        EvaluationWorkspace workspace = CURRENT.get();
+        context.recordEvaluations(workspace.evaluations, workspace.feasibleEvaluations);
+        CURRENT.remove();
+    }
+
+    private void bind(RunningOptimization optimization) {
+        this.optimization = optimization;
+        if (optimization.getFleetIndex() == null) {
+            // optymalizacja zbudowana poza OptimizerService
+            optimization.setFleetIndex(FleetIndex.of(optimization));
+        }
+        fleet = optimization.getFleetIndex();
+        driverUsed = fleet.newDriverSet();
+        for (int vt = 0; vt <= VEHICLE_TYPES.length; vt++) {
+            shiftLimitMinutes[vt] = fleet.maxShiftSeconds(vt) / 60.0;
+        }
+    }
+
+    void ensureRouteCapacity(int routes) {
+        if (routeDistances.length >= routes) {
+            return;
+        }
+        int capacity = Math.max(routes, routeDistances.length * 2);
+        routeDistances = Arrays.copyOf(routeDistances, capacity);
+        routeDurations = Arrays.copyOf(routeDurations, capacity);
+        routeMinVehicleType = Arrays.copyOf(routeMinVehicleType, capacity);
+        routeDriver = Arrays.copyOf(routeDriver, capacity);
+        routeVehicleType = Arrays.copyOf(routeVehicleType, capacity);
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.ConvergenceTrace;
+import com.example.optimizer.model.NeighborList;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.OptimizedRoute;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.repository.OptimizationJobStore;
+import com.example.optimizer.repository.OptimizationResultCache;
+import com.example.optimizer.repository.RunningOptimizationRepository;
+import com.example.optimizer.service.OptimizationCallbackNotifier;
+import com.example.optimizer.service.OptimizationMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uruchamia optymalizację silnikiem wybranym w jej ustawieniach: niezależne trajektorie (starty) na puli wątków
+ * wyszukiwania, opcjonalnie aż do wyczerpania budżetu czasu, a następnie zamienia najlepsze rozwiązanie na trasy.
+ * Telemetria przebiegu (ślad zbieżności, liczniki ocen i tabu) jest przechowywana w optymalizacji i zapisywana
+ * w {@link OptimizationMetrics}.
+ * Losowość pochodzi wyłącznie z ziarna optymalizacji ({@link RandomStreams}): bez budżetu czasu przebieg na jednym
+ * wątku lub bez współdzielenia elity odtwarza ten sam plan dla tego samego ziarna i wejścia.
+ */
+@Slf4j
+@Component
+public class MetaheuristicOptimizer {
+
+    // konstrukcja raportowana, gdy trajektorie startują z naprawionego poprzedniego planu
+    static final String REPAIR_LABEL = "repair";
+    // część budżetu czasu dla klastrów zdekomponowanej instancji, reszta zostaje dla wyszukiwania globalnego
+    private static final double CLUSTER_BUDGET_SHARE = 0.75;
+
+    private final Map<String, OptimizationEngine> engines = new HashMap<>();
+    private final SearchWorkerPool workerPool;
+    private final RunningOptimizationRepository repository;
+    private final OptimizationJobStore jobStore;
+    private final OptimizationCallbackNotifier callbacks;
+    private final OptimizationResultCache resultCache;
+    private final OptimizationMetrics metrics;
+
+    public MetaheuristicOptimizer(List<OptimizationEngine> engines, SearchWorkerPool workerPool,
+                                  RunningOptimizationRepository repository, OptimizationJobStore jobStore,
+                                  OptimizationCallbackNotifier callbacks, OptimizationResultCache resultCache,
+                                  OptimizationMetrics metrics) {
+        for (OptimizationEngine engine : engines) {
+            this.engines.put(engine.getName(), engine);
+        }
+        this.workerPool = workerPool;
+        this.repository = repository;
+        this.jobStore = jobStore;
+        this.callbacks = callbacks;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Prowadzi optymalizację do końca; przebieg zakończony wyjątkiem (np. przy budowie list sąsiadów, naprawie
+     * poprzedniego planu lub w wyszukiwaniu jednowątkowym) kończy się statusem FAILED, aby nie był wznawiany
+     * po każdym restarcie.
+     */
+    @Async("optimizationExecutor")
+    public void optimize(RunningOptimization optimization) {
+        try {
+            run(optimization);
+        } catch (RuntimeException e) {
+            log.error("Optimization {} failed", optimization.getId(), e);
+            EvaluationWorkspace.release();
+            if (optimization.getStatus() == OptimizationStatus.IN_PROGRESS) {
+                finishFailed(optimization);
+            }
+        }
+    }
+
+    private void run(RunningOptimization optimization) {
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+        if (optimization.isCancelled()) {
+            // anulowana podczas oczekiwania w kolejce wykonawcy
+            finishCancelled(optimization, 0);
+            return;
+        }
+
+        var settings = optimization.getSettings();
+        OptimizationEngine engine = engines.get(settings.getEngine());
+        if (engine == null) {
+            log.warn("Unknown optimization engine '{}', using {}", settings.getEngine(), TabuSearchEngine.NAME);
+            engine = engines.get(TabuSearchEngine.NAME);
+        }
+        ConstructionHeuristic construction = ConstructionHeuristic.of(settings.getConstruction());
+        if (construction == null) {
+            log.warn("Unknown construction heuristic '{}', using {}", settings.getConstruction(), ConstructionHeuristic.RANDOM.label());
+            construction = ConstructionHeuristic.RANDOM;
+        }
+        if (optimization.getNeighborList() == null) {
+            optimization.setNeighborList(NeighborList.of(optimization.getTravelMatrix(),
+                    optimization.getOrders().size(), settings.getNeighborCount()));
+        }
+        int starts = settings.getStarts();
+        int threads = Math.min(settings.getThreads(), starts);
+        ElitePool elite = new ElitePool();
+        ProgressPublisher progress = new ProgressPublisher(optimization, elite, jobStore, callbacks, settings.getPublishIntervalMillis());
+        AtomicInteger nextStart = new AtomicInteger();
+        if (optimization.getSeed() == null) {
+            // zwracane z wynikiem, aby można było powtórzyć przebieg z tym samym ziarnem
+            optimization.setSeed(new SplittableRandom().nextLong());
+        }
+        RandomStreams randomStreams = new RandomStreams(optimization.getSeed());
+        optimization.setConvergence(new ConvergenceTrace(startNanos));
+
+        // z budżetem czasu trajektorie są wznawiane aż do terminu zamiast kończyć się po limitach iteracji
+        int sequenceLength = optimization.getOrders().size() + groupCount(optimization) - 1;
+        boolean timeBudgeted = settings.getTimeBudgetMillis() > 0 && sequenceLength >= 2;
+        long deadline = timeBudgeted ? System.nanoTime() + settings.getTimeBudgetMillis() * 1_000_000L : Long.MAX_VALUE;
+        SearchContext context = new SearchContext(optimization, elite, progress, deadline);
+
+        // każdy wątek prowadzi niezależne trajektorie, aż wszystkie starty zostaną pobrane (i budżet wyczerpany)
+        OptimizationEngine selected = engine;
+        ConstructionHeuristic initialConstruction = construction;
+        // poprzedni plan jest naprawiany raz i każda trajektoria z niego startuje
+        Solution repaired = optimization.getPreviousRoutes() != null && !optimization.getPreviousRoutes().isEmpty()
+                ? new RouteConstruction(optimization, null).repair(optimization.getPreviousRoutes(), optimization.getOrders())
+                : null;
+        // bez poprzedniego planu i punktu kontrolnego duża instancja jest dekomponowana: klastry są optymalizowane
+        // równolegle, a każda trajektoria startuje z połączenia ich rozwiązań
+        long clusterDeadline = timeBudgeted
+                ? startNanos + (long) (settings.getTimeBudgetMillis() * CLUSTER_BUDGET_SHARE) * 1_000_000L : Long.MAX_VALUE;
+        Solution decomposed = repaired == null && optimization.getInitialSequence() == null
+                ? decompose(optimization, engine, construction, context, clusterDeadline, randomStreams) : null;
+        Solution startingPoint = repaired != null ? repaired : decomposed;
+        Runnable worker = () -> {
+            try {
+                int startIndex;
+                while ((startIndex = nextStart.getAndIncrement()) < starts || timeBudgeted) {
+                    if (context.shouldStop()) {
+                        break;
+                    }
+                    SplittableRandom random = randomStreams.stream(startIndex);
+                    Solution initial = initialSolution(optimization, initialConstruction, startingPoint, startIndex, sequenceLength, random);
+                    if (startIndex == 0) {
+                        optimization.setInitialFitness(Calculator.calculateFitness(initial, optimization));
+                    }
+                    selected.runTrajectory(context, initial, random);
+                }
+            } finally {
+                EvaluationWorkspace.release(context);
+            }
+        };
+
+        try {
+            if (threads <= 1) {
+                worker.run();
+            } else {
+                List<Future<?>> futures = new ArrayList<>(threads);
+                for (int w = 0; w < threads; w++) {
+                    futures.add(workerPool.submit(() -> {
+                        worker.run();
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Optimization: interrupted while waiting for search workers", e);
+        } catch (ExecutionException e) {
+            log.error("Optimization: search worker failed", e.getCause());
+        }
+
+        long elapsedMillis = Duration.between(start, Instant.now()).toMillis();
+        if (optimization.isCancelled()) {
+            EvaluationWorkspace.release();
+            finishCancelled(optimization, elapsedMillis);
+            return;
+        }
+        long iterations = context.getIterations();
+        double iterationsPerSecond = iterations * 1000.0 / Math.max(elapsedMillis, 1);
+        long evaluations = context.getEvaluations();
+        optimization.setEngine(engine.getName());
+        optimization.setIterations(iterations);
+        optimization.setIterationsPerSecond(iterationsPerSecond);
+        optimization.setOperatorStatistics(context.getOperatorStatistics());
+        optimization.setElapsedMillis(elapsedMillis);
+        optimization.setEvaluations(evaluations);
+        optimization.setEvaluationsPerSecond(evaluations * 1000.0 / Math.max(elapsedMillis, 1));
+        optimization.setFeasibilityRate(evaluations > 0 ? (double) context.getFeasibleEvaluations() / evaluations : null);
+        optimization.setTabuHits(context.getTabuHits());
+        String constructionLabel = repaired != null ? REPAIR_LABEL
+                : decomposed != null ? ClusterDecomposition.LABEL : construction.label();
+        optimization.setConstruction(constructionLabel);
+        long firstFeasibleNanos = elite.firstFeasibleNanos();
+        optimization.setFirstFeasibleMillis(firstFeasibleNanos != 0 ? (firstFeasibleNanos - startNanos) / 1_000_000 : null);
+        log.info("Optimization finished in {} ms with {} ({} starts on {} threads, {} iterations, {} it/s)",
+                elapsedMillis, engine.getName(), starts, threads, iterations, Math.round(iterationsPerSecond));
+        log.info("Optimization: {} construction, initial fitness {}, first feasible solution after {} ms",
+                constructionLabel, optimization.getInitialFitness(), optimization.getFirstFeasibleMillis());
+        log.info("Optimization: {} evaluations ({} /s, {} feasible), {} tabu hits, {} convergence points",
+                evaluations, Math.round(optimization.getEvaluationsPerSecond()), optimization.getFeasibilityRate(),
+                optimization.getTabuHits(), optimization.getConvergence().size());
+
+        // zamiana najlepszego rozwiązania na trasy i zapis podstawowych informacji w logu
+        Solution best = elite.best();
+        var optimizedRoutes = best != null ? Calculator.solutionToOptimizedRoutes(best, optimization) : null;
+        EvaluationWorkspace.release();
+        if (optimizedRoutes == null) {
+            log.info("Optimization: no feasible assignment found.");
+            finishFailed(optimization);
+        } else {
+            log.info("Optimization: found " + optimizedRoutes.size() + " routes, total distance approx = " +
+                    optimizedRoutes.stream().mapToDouble(OptimizedRoute::getTotalDistance).sum());
+            optimization.setRoutes(optimizedRoutes);
+            optimization.setFitness(elite.bestFitness());
+            jobStore.saveResult(optimization.getId(), OptimizationStatus.COMPLETED, optimizedRoutes, elite.bestFitness());
+            resultCache.put(optimization.getFingerprint(), best.getSequence(), optimizedRoutes, elite.bestFitness());
+            repository.finish(optimization, OptimizationStatus.COMPLETED);
+            callbacks.finished(optimization);
+            metrics.finished(optimization);
+        }
+    }
+
+    private void finishFailed(RunningOptimization optimization) {
+        jobStore.saveResult(optimization.getId(), OptimizationStatus.FAILED, null, null);
+        repository.finish(optimization, OptimizationStatus.FAILED);
+        callbacks.finished(optimization);
+        metrics.finished(optimization);
+    }
+
+    /**
+     * Anulowana optymalizacja nie zachowuje wyniku; jej zakończenie zwalnia macierze i listy sąsiadów
+     * oraz oznacza wpis dziennika jako zakończony, aby nie był wznawiany po restarcie.
+     */
+    private void finishCancelled(RunningOptimization optimization, long elapsedMillis) {
+        log.info("Optimization {} cancelled after {} ms", optimization.getId(), elapsedMillis);
+        optimization.setElapsedMillis(elapsedMillis);
+        jobStore.saveResult(optimization.getId(), OptimizationStatus.CANCELLED, null, null);
+        repository.finish(optimization, OptimizationStatus.CANCELLED);
+        callbacks.finished(optimization);
+        metrics.finished(optimization);
+    }
+
+    /**
+     * Optymalizuje klastry dużej instancji ({@link ClusterDecomposition}) równolegle na puli wątków wyszukiwania,
+     * każdy do terminu lub wyczerpania własnych startów, i łączy ich najlepsze rozwiązania.
+     *
+     * @return połączone rozwiązanie lub null, jeśli instancja nie jest dekomponowana
+     */
+    private Solution decompose(RunningOptimization optimization, OptimizationEngine engine,
+                               ConstructionHeuristic construction, SearchContext context, long deadline,
+                               RandomStreams randomStreams) {
+        long startNanos = System.nanoTime();
+        ClusterDecomposition decomposition = ClusterDecomposition.of(optimization, optimization.getSettings().getClusterSize());
+        if (decomposition == null) {
+            return null;
+        }
+        List<RunningOptimization> clusters = decomposition.subProblems();
+        List<Future<Solution>> futures = new ArrayList<>(clusters.size());
+        for (int c = 0; c < clusters.size(); c++) {
+            RunningOptimization cluster = clusters.get(c);
+            RandomStreams clusterStreams = randomStreams.split();
+            futures.add(workerPool.submit(() -> solveCluster(cluster, engine, construction, context, deadline, clusterStreams)));
+        }
+        List<Solution> solutions = new ArrayList<>(clusters.size());
+        for (Future<Solution> future : futures) {
+            Solution solution = null;
+            try {
+                solution = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Optimization: interrupted while waiting for clusters", e);
+            } catch (ExecutionException e) {
+                log.error("Optimization: cluster search failed", e.getCause());
+            }
+            solutions.add(solution);
+        }
+        Solution joined = decomposition.join(solutions);
+        log.info("Optimization: {} orders decomposed into {} clusters, optimized in {} ms, joined fitness {}",
+                optimization.getOrders().size(), clusters.size(), (System.nanoTime() - startNanos) / 1_000_000,
+                Calculator.calculateFitness(joined, optimization));
+        return joined;
+    }
+
+    /**
+     * Prowadzi trajektorie na jednym klastrze do wyczerpania jego startów lub terminu; anulowanie całej
+     * optymalizacji również je zatrzymuje. Iteracje, liczniki ocen i tabu oraz statystyki operatorów są dodawane
+     * do kontekstu całej optymalizacji.
+     */
+    private static Solution solveCluster(RunningOptimization cluster, OptimizationEngine engine,
+                                         ConstructionHeuristic construction, SearchContext parent, long deadline,
+                                         RandomStreams randomStreams) {
+        ElitePool elite = new ElitePool();
+        SearchContext context = new SearchContext(cluster, elite, null, deadline, parent.getOptimization());
+        int starts = cluster.getSettings().getStarts();
+        boolean timeBudgeted = context.isTimeBudgeted() && cluster.getOrders().size() + groupCount(cluster) - 1 >= 2;
+        try {
+            for (int s = 0; s < starts || timeBudgeted; s++) {
+                if (context.shouldStop()) {
+                    break;
+                }
+                SplittableRandom random = randomStreams.stream(s);
+                engine.runTrajectory(context, construction.build(cluster, s == 0 ? null : random), random);
+            }
+            Solution best = elite.best();
+            return best != null ? best : construction.build(cluster, null);
+        } finally {
+            EvaluationWorkspace.release(context);
+            parent.absorb(context);
+        }
+    }
+
+    /**
+     * Pierwsza trajektoria kontynuuje od podanej sekwencji początkowej (np. odtworzonego punktu kontrolnego).
+     * W przeciwnym razie wszystkie trajektorie startują z podanego punktu startowego (naprawionego poprzedniego
+     * planu lub połączonych rozwiązań klastrów), jeśli istnieje, a bez niego pierwsza z konstrukcji
+     * deterministycznej, a pozostałe z konstrukcji losowanych.
+     */
+    private static Solution initialSolution(RunningOptimization optimization, ConstructionHeuristic construction,
+                                            Solution startingPoint, int startIndex, int sequenceLength, SplittableRandom random) {
+        int[] initial = optimization.getInitialSequence();
+        if (startIndex == 0 && initial != null && initial.length == Math.max(sequenceLength, optimization.getOrders().size())) {
+            return new Solution(initial);
+        }
+        if (startingPoint != null) {
+            return startingPoint.copy();
+        }
+        return construction.build(optimization, startIndex == 0 ? null : random);
+    }
+
+    static int groupCount(RunningOptimization optimization) {
+        return Math.min(optimization.getVehicles().size(), optimization.getDrivers().size());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.optimizer.algorithm;
+
+/**
+ * Kandydujący ruch sąsiedztwa: pozycje {@code from..to} sekwencji są zastępowane przez
+ * {@code genes[0..to-from]}, permutację genów z tego zakresu.
+ */
+final class Move {
+
+    NeighborhoodOperator operator;
+    int from;
+    int to;
+    final int[] genes;
+
+    Move(int capacity) {
+        genes = new int[capacity];
+    }
+
+    int length() {
+        return to - from + 1;
+    }
+
+    void copyFrom(Move other) {
+        operator = other.operator;
+        from = other.from;
+        to = other.to;
+        System.arraycopy(other.genes, 0, genes, 0, other.length());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.NeighborList;
+
+import java.util.SplittableRandom;
+
+/**
+ * Operatory {@link NeighborhoodOperator} dostępne dla jednej trajektorii, losowane przez {@link AdaptiveWeights},
+ * wraz z licznikami trajektorii dla każdego operatora. Z listami {@link NeighborList} większość ruchów jest
+ * granularna: stawia zlecenie obok jednego z jego najbliższych sąsiadów zamiast łączyć losowe pozycje.
+ */
+final class Neighborhood {
+
+    private static final NeighborhoodOperator[] OPERATORS = NeighborhoodOperator.values();
+
+    private static final int SEGMENT_LENGTH = 100;
+    private static final double REACTION_FACTOR = 0.2;
+    // pozostałe ruchy są bez ograniczeń, dzięki czemu separatory nadal się przesuwają, a trasy mieszają
+    private static final double GRANULAR_RATIO = 0.9;
+
+    private final DeltaEvaluator evaluator;
+    private final NeighborList neighbors;
+    private final AdaptiveWeights weights = new AdaptiveWeights(OPERATORS.length, SEGMENT_LENGTH, REACTION_FACTOR);
+    private final long[] proposed = new long[OPERATORS.length];
+    private final long[] accepted = new long[OPERATORS.length];
+    private final long[] improved = new long[OPERATORS.length];
+
+    /**
+     * @param neighbors listy najbliższych sąsiadów lub null dla samych ruchów bez ograniczeń
+     */
+    Neighborhood(DeltaEvaluator evaluator, NeighborList neighbors) {
+        this.evaluator = evaluator;
+        this.neighbors = neighbors != null && neighbors.k() > 0 ? neighbors : null;
+    }
+
+    /**
+     * Losuje operator i ruch jego typu.
+     *
+     * @return false, jeśli wylosowany ruch nie ma zastosowania; nie jest wtedy liczony
+     */
+    boolean sample(SplittableRandom rnd, Move move) {
+        NeighborhoodOperator operator = OPERATORS[weights.select(rnd)];
+        int anchor = -1;
+        int neighbor = -1;
+        if (neighbors != null && rnd.nextDouble() < GRANULAR_RATIO) {
+            int order = rnd.nextInt(neighbors.orderCount());
+            anchor = evaluator.positionOf(order);
+            neighbor = evaluator.positionOf(neighbors.neighbor(order, rnd.nextInt(neighbors.k())));
+        }
+        if (!operator.generate(evaluator, rnd, move, anchor, neighbor)) {
+            return false;
+        }
+        move.operator = operator;
+        weights.use(operator.ordinal());
+        proposed[operator.ordinal()]++;
+        return true;
+    }
+
+    /**
+     * Odnotowuje wykonanie ruchu na bieżącym rozwiązaniu.
+     */
+    void accepted(Move move, double previousFitness, double fitness, boolean newBest) {
+        int operator = move.operator.ordinal();
+        accepted[operator]++;
+        if (fitness < previousFitness) {
+            improved[operator]++;
+        }
+        weights.score(operator, newBest ? AdaptiveWeights.SCORE_NEW_BEST
+                : fitness < previousFitness ? AdaptiveWeights.SCORE_IMPROVED : AdaptiveWeights.SCORE_ACCEPTED);
+    }
+
+    void endIteration() {
+        weights.endIteration();
+    }
+
+    /**
+     * Dodaje liczniki trajektorii do statystyk operatorów optymalizacji.
+     */
+    void report(SearchContext context) {
+        for (NeighborhoodOperator operator : OPERATORS) {
+            int i = operator.ordinal();
+            context.recordOperator(operator.label(), proposed[i], accepted[i], improved[i]);
+        }
+    }
+}
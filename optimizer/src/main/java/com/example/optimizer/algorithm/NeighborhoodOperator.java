@@ -0,0 +1,275 @@
+package com.example.optimizer.algorithm;
+
+import java.util.SplittableRandom;
+
+/**
+ * Ruchy sąsiedztwa na genomie. Każdy ruch zastępuje spójny zakres pozycji permutacją jego genów,
+ * więc można go ocenić przez {@link DeltaEvaluator#evaluateMove} bez przeliczania pozostałych tras.
+ * Operatory inne niż {@link #SWAP} przenoszą tylko zlecenia i nigdy nie przesuwają separatorów.
+ * Ruchy granularne, ograniczone do najbliższych sąsiadów, stawiają zlecenie obok jednego z jego sąsiadów.
+ */
+enum NeighborhoodOperator {
+
+    /**
+     * Zamienia dwa losowe geny, zlecenia lub separatory.
+     */
+    SWAP("swap") {
+        @Override
+        boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor) {
+            int[] sequence = evaluator.getSolution().getSequence();
+            int i;
+            int j;
+            if (anchor >= 0) {
+                // sąsiad zajmuje miejsce za kotwicą
+                i = anchor + 1;
+                j = neighbor;
+                if (i >= sequence.length) {
+                    return false;
+                }
+            } else {
+                i = rnd.nextInt(sequence.length);
+                j = rnd.nextInt(sequence.length);
+            }
+            if (i == j || (sequence[i] < 0 && sequence[j] < 0)) {
+                return false;
+            }
+            setRange(move, sequence, Math.min(i, j), Math.max(i, j));
+            move.genes[0] = sequence[move.to];
+            move.genes[move.length() - 1] = sequence[move.from];
+            return true;
+        }
+    },
+
+    /**
+     * Przenosi jedno zlecenie na inną pozycję, w tej samej lub innej trasie.
+     */
+    RELOCATE("relocate") {
+        @Override
+        boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor) {
+            int[] sequence = evaluator.getSolution().getSequence();
+            if (anchor >= 0) {
+                // sąsiad przechodzi tuż za kotwicę
+                return moveAfter(move, sequence, neighbor, 1, anchor);
+            }
+            int i = randomOrderPosition(sequence, rnd);
+            int j = rnd.nextInt(sequence.length);
+            if (i < 0 || i == j) {
+                return false;
+            }
+            moveBlock(move, sequence, i, 1, j, false);
+            return true;
+        }
+    },
+
+    /**
+     * Odwraca fragment jednej trasy.
+     */
+    TWO_OPT("2-opt") {
+        @Override
+        boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor) {
+            int[] sequence = evaluator.getSolution().getSequence();
+            int i;
+            int j;
+            if (anchor >= 0) {
+                if (evaluator.routeOf(anchor) != evaluator.routeOf(neighbor)) {
+                    return false;
+                }
+                // odwrócenie fragmentu między nimi stawia sąsiada tuż za kotwicą (lub przed nią)
+                i = neighbor > anchor ? anchor + 1 : neighbor;
+                j = neighbor > anchor ? neighbor : anchor - 1;
+                if (j - i < 1) {
+                    return false;
+                }
+            } else {
+                i = randomOrderPosition(sequence, rnd);
+                if (i < 0) {
+                    return false;
+                }
+                int route = evaluator.routeOf(i);
+                int first = evaluator.routeStart(route);
+                int last = lastOrderPosition(evaluator, sequence, route);
+                if (last - first < 1) {
+                    return false;
+                }
+                j = first + rnd.nextInt(last - first + 1);
+                if (j == i) {
+                    return false;
+                }
+            }
+            setRange(move, sequence, Math.min(i, j), Math.max(i, j));
+            reverse(move.genes, 0, move.length() - 1);
+            return true;
+        }
+    },
+
+    /**
+     * Przenosi segment dwóch lub trzech kolejnych zleceń jednej trasy na inną pozycję, być może odwrócony.
+     */
+    OR_OPT("or-opt") {
+        @Override
+        boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor) {
+            int[] sequence = evaluator.getSolution().getSequence();
+            int i = anchor >= 0 ? neighbor : randomOrderPosition(sequence, rnd);
+            if (i < 0) {
+                return false;
+            }
+            int length = 2 + rnd.nextInt(MAX_SEGMENT - 1);
+            if (i + length - 1 > lastOrderPosition(evaluator, sequence, evaluator.routeOf(i))) {
+                return false;
+            }
+            if (anchor >= 0) {
+                // segment zaczynający się od sąsiada przechodzi tuż za kotwicę
+                return moveAfter(move, sequence, i, length, anchor);
+            }
+            int j = rnd.nextInt(sequence.length);
+            if (j >= i && j < i + length) {
+                return false;
+            }
+            moveBlock(move, sequence, i, length, j, rnd.nextBoolean());
+            return true;
+        }
+    },
+
+    /**
+     * Wymienia segmenty do trzech zleceń między dwiema trasami.
+     */
+    CROSS_EXCHANGE("cross-exchange") {
+        @Override
+        boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor) {
+            int[] sequence = evaluator.getSolution().getSequence();
+            int i;
+            int j;
+            if (anchor >= 0) {
+                // segment za kotwicą jest wymieniany z segmentem zaczynającym się od sąsiada
+                i = anchor + 1;
+                j = neighbor;
+                if (i >= sequence.length || sequence[i] < 0) {
+                    return false;
+                }
+            } else {
+                i = randomOrderPosition(sequence, rnd);
+                j = randomOrderPosition(sequence, rnd);
+                if (i < 0 || j < 0) {
+                    return false;
+                }
+            }
+            if (evaluator.routeOf(i) == evaluator.routeOf(j)) {
+                return false;
+            }
+            if (j < i) {
+                int position = i;
+                i = j;
+                j = position;
+            }
+            int lengthA = Math.min(1 + rnd.nextInt(MAX_SEGMENT), lastOrderPosition(evaluator, sequence, evaluator.routeOf(i)) - i + 1);
+            int lengthB = Math.min(1 + rnd.nextInt(MAX_SEGMENT), lastOrderPosition(evaluator, sequence, evaluator.routeOf(j)) - j + 1);
+
+            // geny: segment B, wszystko między segmentami, segment A
+            move.from = i;
+            move.to = j + lengthB - 1;
+            int k = 0;
+            System.arraycopy(sequence, j, move.genes, k, lengthB);
+            k += lengthB;
+            System.arraycopy(sequence, i + lengthA, move.genes, k, j - i - lengthA);
+            k += j - i - lengthA;
+            System.arraycopy(sequence, i, move.genes, k, lengthA);
+            return true;
+        }
+    };
+
+    private static final int MAX_SEGMENT = 3;
+    // liczba prób wylosowania pozycji zlecenia (nie separatora)
+    private static final int ORDER_DRAWS = 4;
+
+    private final String label;
+
+    NeighborhoodOperator(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Nazwa raportowana w statystykach operatorów.
+     */
+    String label() {
+        return label;
+    }
+
+    /**
+     * Losuje ruch tego typu dla bieżącego rozwiązania oceniającego. Z kotwicą ruch jest granularny:
+     * stawia zlecenie z pozycji {@code neighbor}, jednego z najbliższych sąsiadów zlecenia z pozycji
+     * {@code anchor}, obok niego.
+     *
+     * @param anchor pozycja zlecenia lub -1 dla ruchu bez ograniczeń
+     * @return false, jeśli wylosowany ruch nie ma zastosowania lub nie zmieniłby rozwiązania
+     */
+    abstract boolean generate(DeltaEvaluator evaluator, SplittableRandom rnd, Move move, int anchor, int neighbor);
+
+    private static int randomOrderPosition(int[] sequence, SplittableRandom rnd) {
+        for (int draw = 0; draw < ORDER_DRAWS; draw++) {
+            int position = rnd.nextInt(sequence.length);
+            if (sequence[position] >= 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ostatnia pozycja zlecenia w trasie lub pozycja przed początkiem trasy, jeśli trasa nie ma zleceń.
+     */
+    private static int lastOrderPosition(DeltaEvaluator evaluator, int[] sequence, int route) {
+        int end = evaluator.routeEnd(route);
+        return sequence[end] < 0 ? end - 1 : end;
+    }
+
+    private static void setRange(Move move, int[] sequence, int from, int to) {
+        move.from = from;
+        move.to = to;
+        System.arraycopy(sequence, from, move.genes, 0, to - from + 1);
+    }
+
+    /**
+     * Przenosi blok {@code length} genów z pozycji {@code start} tak, aby zajął miejsce pozycji {@code target}.
+     */
+    private static void moveBlock(Move move, int[] sequence, int start, int length, int target, boolean reversed) {
+        if (target > start) {
+            move.from = start;
+            move.to = target;
+            int shifted = target - start - length + 1;
+            System.arraycopy(sequence, start + length, move.genes, 0, shifted);
+            System.arraycopy(sequence, start, move.genes, shifted, length);
+            if (reversed) {
+                reverse(move.genes, shifted, shifted + length - 1);
+            }
+        } else {
+            move.from = target;
+            move.to = start + length - 1;
+            System.arraycopy(sequence, start, move.genes, 0, length);
+            System.arraycopy(sequence, target, move.genes, length, start - target);
+            if (reversed) {
+                reverse(move.genes, 0, length - 1);
+            }
+        }
+    }
+
+    /**
+     * Przenosi blok {@code length} genów z pozycji {@code start} tuż za pozycję {@code anchor}.
+     *
+     * @return false, jeśli kotwica leży wewnątrz bloku lub blok już za nią stoi
+     */
+    private static boolean moveAfter(Move move, int[] sequence, int start, int length, int anchor) {
+        if (anchor >= start - 1 && anchor < start + length) {
+            return false;
+        }
+        moveBlock(move, sequence, start, length, anchor > start ? anchor : anchor + 1, false);
+        return true;
+    }
+
+    private static void reverse(int[] genes, int from, int to) {
+        for (; from < to; from++, to--) {
+            int gene = genes[from];
+            genes[from] = genes[to];
+            genes[to] = gene;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.optimizer.algorithm;
+
+import java.util.SplittableRandom;
+
+/**
+ * Metaheurystyka przeszukująca przestrzeń rozwiązań jednej optymalizacji.
+ * {@link MetaheuristicOptimizer} uruchamia trajektorie silnika wybranego w
+ * {@link com.example.optimizer.model.OptimizationSettings#getEngine()} (wiele startów, wątki, limit czasu)
+ * i składa z nich wynik; silnik odpowiada tylko za pojedynczą trajektorię.
+ */
+public interface OptimizationEngine {
+
+    /**
+     * Nazwa, pod którą silnik wybierany jest w żądaniu.
+     */
+    String getName();
+
+    /**
+     * Przeszukuje od rozwiązania początkowego, zgłaszając każde poprawione rozwiązanie przez {@link SearchContext#offer}
+     * i każdą iterację przez {@link SearchContext#iteration()}. Kończy się po własnym limicie iteracji
+     * lub, przy limicie czasu, gdy {@link SearchContext#shouldStop()}.
+     */
+    void runTrajectory(SearchContext context, Solution initial, SplittableRandom random);
+}
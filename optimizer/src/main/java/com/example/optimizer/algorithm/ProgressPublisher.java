@@ -0,0 +1,61 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.repository.OptimizationJobStore;
+import com.example.optimizer.service.OptimizationCallbackNotifier;
+
+/**
+ * Okresowo zapisuje najlepsze dotychczasowe rozwiązanie puli jako trasy w {@link RunningOptimization},
+ * aby wynik był dostępny jeszcze przed zakończeniem optymalizacji. Każdy opublikowany wynik trafia też
+ * jako punkt kontrolny do {@link OptimizationJobStore}, od którego optymalizacja jest wznawiana po restarcie,
+ * i jest zgłaszany zlecającemu przez {@link OptimizationCallbackNotifier}.
+ */
+final class ProgressPublisher {
+
+    private final RunningOptimization optimization;
+    private final ElitePool elite;
+    private final OptimizationJobStore jobStore;
+    private final OptimizationCallbackNotifier callbacks;
+    private final long intervalNanos;
+
+    private volatile long nextPublishNanos;
+    private long publishedVersion;
+
+    ProgressPublisher(RunningOptimization optimization, ElitePool elite, OptimizationJobStore jobStore,
+                      OptimizationCallbackNotifier callbacks, long intervalMillis) {
+        this.optimization = optimization;
+        this.elite = elite;
+        this.jobStore = jobStore;
+        this.callbacks = callbacks;
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.nextPublishNanos = System.nanoTime() + intervalNanos;
+    }
+
+    /**
+     * Publikuje wynik, jeśli minął interwał; wywoływane przez trajektorie w każdej iteracji.
+     */
+    void maybePublish() {
+        if (System.nanoTime() >= nextPublishNanos) {
+            publish();
+        }
+    }
+
+    synchronized void publish() {
+        nextPublishNanos = System.nanoTime() + intervalNanos;
+        if (elite.version() == publishedVersion) {
+            return;
+        }
+        ElitePool.Snapshot snapshot = elite.snapshot();
+        if (snapshot == null || !Calculator.isFeasible(snapshot.fitness())) {
+            return;
+        }
+        var routes = Calculator.solutionToOptimizedRoutes(snapshot.solution(), optimization);
+        if (routes != null) {
+            optimization.setRoutes(routes);
+            optimization.setFitness(snapshot.fitness());
+            publishedVersion = snapshot.version();
+            jobStore.saveCheckpoint(optimization.getId(), snapshot.solution().getSequence(), snapshot.fitness());
+            callbacks.progress(optimization);
+        }
+    }
+}
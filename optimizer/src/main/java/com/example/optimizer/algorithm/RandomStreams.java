@@ -0,0 +1,43 @@
+package com.example.optimizer.algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Strumienie losowe jednej optymalizacji, wydzielane z jej ziarna. Strumień startu zależy tylko od ziarna
+ * i numeru startu, a nie od tego, który wątek i kiedy pobierze start; każdy strumień jest używany przez jeden
+ * wątek, więc trajektorie nie współdzielą stanu generatora.
+ */
+final class RandomStreams {
+
+    private final SplittableRandom root;
+    // dotychczas wydzielone strumienie, w kolejności startów
+    private final List<SplittableRandom> streams = new ArrayList<>();
+
+    RandomStreams(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RandomStreams(SplittableRandom root) {
+        this.root = root;
+    }
+
+    /**
+     * Niezależne strumienie dla osobnej fazy wyszukiwania (np. klastrów dekompozycji); musi być wywołane
+     * przed {@link #stream}, aby nie zależało od liczby pobranych startów.
+     */
+    synchronized RandomStreams split() {
+        return new RandomStreams(root.split());
+    }
+
+    /**
+     * Strumień podanego startu; strumienie są wydzielane w kolejności startów, więc start zawsze dostaje ten sam.
+     */
+    synchronized SplittableRandom stream(int index) {
+        while (streams.size() <= index) {
+            streams.add(root.split());
+        }
+        return streams.get(index);
+    }
+}
@@ -0,0 +1,518 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.FleetIndex;
+import com.example.optimizer.model.Order;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.TravelMatrix;
+import com.example.optimizer.model.VehicleType;
+
+import java.util.*;
+
+/**
+ * Budowa tras dla heurystyk {@link ConstructionHeuristic}. Trasa jest sprawdzana względem limitu czasu kierowców,
+ * którzy mogą ją przejąć: najdłuższej zmiany wśród kierowców z uprawnieniami na typ pojazdu przewożący jej
+ * najcięższe zlecenie ({@link FleetIndex#maxShiftSeconds}) oraz, gdy trasy powstają po kolei, zmiany kierowcy
+ * o tym samym miejscu w kolejności (pierwsza trasa dostaje najdłuższą zmianę). Rywalizację tras o kierowców
+ * i pojazdy rozstrzyga funkcja celu, więc zbudowane rozwiązanie zwykle, choć nie zawsze, jest dopuszczalne.
+ * Z {@link SplittableRandom} heurystyki są zaburzane, aby różne starty zaczynały od różnych rozwiązań.
+ */
+final class RouteConstruction {
+
+    private static final int SERVICE_TIME_MINUTES = 15;
+    // względne zaburzenie oszczędności, kątów i żalów w konstrukcji losowanej
+    private static final double NOISE = 0.1;
+
+    private final TravelMatrix matrix;
+    private final FleetIndex fleet;
+    private final int orderCount;
+    private final int groupCount;
+    // liczba tras do zbudowania, co najmniej jedna nawet bez kierowców i pojazdów
+    private final int routeCount;
+    private final SplittableRandom rnd;
+    // najdłuższa zmiana w minutach dla tras, których najcięższe zlecenie wymaga co najmniej danego typu pojazdu
+    private final double[] maxShiftMinutes;
+
+    RouteConstruction(RunningOptimization optimization, SplittableRandom rnd) {
+        this.matrix = optimization.getTravelMatrix();
+        // przestrzeń robocza buduje indeks floty dla optymalizacji utworzonych poza OptimizerService
+        this.fleet = EvaluationWorkspace.current(optimization).fleet;
+        this.orderCount = optimization.getOrders().size();
+        this.groupCount = MetaheuristicOptimizer.groupCount(optimization);
+        this.routeCount = Math.max(groupCount, 1);
+        this.rnd = rnd;
+        int vehicleTypes = VehicleType.values().length;
+        // dodatkowa klasa dla zleceń, których nie przewiezie żaden typ pojazdu, bez kierowcy (limit 0)
+        this.maxShiftMinutes = new double[vehicleTypes + 1];
+        for (int vt = 0; vt <= vehicleTypes; vt++) {
+            maxShiftMinutes[vt] = fleet.maxShiftSeconds(vt) / 60.0;
+        }
+    }
+
+    /**
+     * Oszczędności Clarke'a-Wrighta: zaczyna od jednej trasy na zlecenie i dołącza trasę kończącą się
+     * zleceniem i do trasy zaczynającej się zleceniem j w malejącej kolejności oszczędności
+     * d(i, baza) + d(baza, j) - d(i, j).
+     */
+    Solution savings() {
+        int n = orderCount;
+        int[] next = new int[n];
+        int[] previous = new int[n];
+        int[] route = new int[n];
+        int[] head = new int[n];
+        int[] tail = new int[n];
+        double[] duration = new double[n];
+        int[] minVehicleType = new int[n];
+        Arrays.fill(next, -1);
+        Arrays.fill(previous, -1);
+        for (int i = 0; i < n; i++) {
+            route[i] = i;
+            head[i] = i;
+            tail[i] = i;
+            duration[i] = matrix.duration(0, i + 1) + serviceMinutes(i) + matrix.duration(i + 1, 0);
+            minVehicleType[i] = fleet.orderMinVehicleType(i);
+        }
+
+        // dodatnie oszczędności spakowane z indeksem pary; bity dodatniego floata sortują się jak sama wartość
+        long[] keys = new long[n * (n - 1 > 0 ? n - 1 : 0)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                double saving = matrix.distance(i + 1, 0) + matrix.distance(0, j + 1) - matrix.distance(i + 1, j + 1);
+                if (rnd != null) {
+                    saving *= 1 + NOISE * (2 * rnd.nextDouble() - 1);
+                }
+                if (saving > 0) {
+                    keys[count++] = ((long) Float.floatToIntBits((float) saving) << 32) | ((long) i * n + j);
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        for (int k = count - 1; k >= 0; k--) {
+            long pair = keys[k] & 0xffffffffL;
+            int i = (int) (pair / n);
+            int j = (int) (pair % n);
+            int routeI = route[i];
+            int routeJ = route[j];
+            if (routeI == routeJ || tail[routeI] != i || head[routeJ] != j) {
+                continue;
+            }
+            int merged = Math.max(minVehicleType[routeI], minVehicleType[routeJ]);
+            double mergedDuration = duration[routeI] + duration[routeJ]
+                    - matrix.duration(i + 1, 0) - matrix.duration(0, j + 1) + matrix.duration(i + 1, j + 1);
+            if (mergedDuration > maxShiftMinutes[merged]) {
+                continue;
+            }
+            next[i] = j;
+            previous[j] = i;
+            for (int order = j; order >= 0; order = next[order]) {
+                route[order] = routeI;
+            }
+            tail[routeI] = tail[routeJ];
+            duration[routeI] = mergedDuration;
+            minVehicleType[routeI] = merged;
+        }
+
+        int routes = 0;
+        int[][] built = new int[n][];
+        int[] buffer = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (previous[start] >= 0) {
+                continue;
+            }
+            int length = 0;
+            for (int order = start; order >= 0; order = next[order]) {
+                buffer[length++] = order;
+            }
+            built[routes++] = Arrays.copyOf(buffer, length);
+        }
+        return toSolution(Arrays.copyOf(built, routes));
+    }
+
+    /**
+     * Przemiatanie: zlecenia posortowane według kąta wokół bazy wypełniają kolejne trasy do limitu czasu trasy,
+     * każde na najtańszej pozycji w trasie.
+     * Zlecenia nie mają współrzędnych, więc kąty pochodzą z osadzenia odległości od bazy na płaszczyźnie
+     * przez triangulację względem dwóch zleceń odniesienia.
+     */
+    Solution sweep() {
+        int n = orderCount;
+        double[] angles = angles();
+        if (rnd != null) {
+            double offset = rnd.nextDouble() * 2 * Math.PI;
+            for (int i = 0; i < n; i++) {
+                angles[i] = (angles[i] + offset) % (2 * Math.PI);
+            }
+        }
+        Integer[] byAngle = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byAngle[i] = i;
+        }
+        Arrays.sort(byAngle, Comparator.comparingDouble(i -> angles[i]));
+
+        int[][] built = new int[routeCount][n];
+        int[] size = new int[routeCount];
+        double[] duration = new double[routeCount];
+        int[] minVehicleType = new int[routeCount];
+        int[] position = new int[routeCount];
+        int route = 0;
+        for (int order : byAngle) {
+            boolean fits = size[route] == 0 || cheapestInsertion(order, built[route], size[route], duration[route],
+                    minVehicleType[route], route, position, true) != Double.POSITIVE_INFINITY;
+            if (!fits && route + 1 < routeCount) {
+                // trasa jest pełna, zlecenie otwiera następną
+                route++;
+            } else if (!fits) {
+                cheapestInsertion(order, built[route], size[route], duration[route], minVehicleType[route], route, position, false);
+            }
+            if (size[route] == 0) {
+                position[route] = 0;
+            }
+            insert(order, route, position[route], built, size, duration, minVehicleType);
+        }
+        int[][] result = new int[route + 1][];
+        for (int r = 0; r <= route; r++) {
+            result[r] = Arrays.copyOf(built[r], size[r]);
+        }
+        return toSolution(result);
+    }
+
+    /**
+     * Wstawianie z żalem rzędu 2 do tylu tras, ilu jest kierowców i pojazdów: w każdym kroku wstawia zlecenie
+     * o największej różnicy między najtańszym wstawieniem do najlepszej i do drugiej najlepszej trasy,
+     * więc zlecenia z niewieloma dobrymi możliwościami trafiają na miejsce najpierw. Zlecenia niemieszczące się
+     * w żadnej trasie są wstawiane na końcu na najtańszą pozycję bez względu na limity.
+     * <p>
+     * Działa w czasie O(n²·(R + L)) dla R tras po co najwyżej L zleceń: każdy z n kroków porównuje pozostałe
+     * zlecenia we wszystkich trasach i wycenia je na nowo dla każdej pozycji zmienionej trasy. W przeciwieństwie
+     * do oszczędności i przemiatania nie mieści się w O(n² log n), gdy tras jest wiele lub są długie;
+     * z {@code settings.clusterSize} duża instancja jest budowana osobno dla każdego klastra
+     * ({@link ClusterDecomposition}), co utrzymuje małe n i R.
+     */
+    Solution regret() {
+        int n = orderCount;
+        int routes = routeCount;
+        int[][] built = new int[routes][n];
+        int[] size = new int[routes];
+        double[] duration = new double[routes];
+        int[] minVehicleType = new int[routes];
+        double[][] cost = new double[n][routes];
+        int[][] position = new int[n][routes];
+        boolean[] inserted = new boolean[n];
+        for (int order = 0; order < n; order++) {
+            for (int r = 0; r < routes; r++) {
+                cost[order][r] = cheapestInsertion(order, built[r], size[r], duration[r], minVehicleType[r], r, position[order], true);
+            }
+        }
+
+        for (int step = 0; step < n; step++) {
+            int chosen = -1;
+            int chosenRoute = -1;
+            double chosenRegret = -1;
+            double chosenCost = -1;
+            for (int order = 0; order < n; order++) {
+                if (inserted[order]) {
+                    continue;
+                }
+                int bestRoute = -1;
+                double best = Double.POSITIVE_INFINITY;
+                double second = Double.POSITIVE_INFINITY;
+                for (int r = 0; r < routes; r++) {
+                    double c = cost[order][r];
+                    if (c < best) {
+                        second = best;
+                        best = c;
+                        bestRoute = r;
+                    } else if (c < second) {
+                        second = c;
+                    }
+                }
+                if (bestRoute < 0) {
+                    continue;
+                }
+                // zlecenie z jedną dopuszczalną trasą ma pierwszeństwo
+                double regret = second == Double.POSITIVE_INFINITY ? Double.MAX_VALUE : second - best;
+                if (rnd != null && regret != Double.MAX_VALUE) {
+                    regret *= 1 + NOISE * (2 * rnd.nextDouble() - 1);
+                }
+                if (regret > chosenRegret || (regret == chosenRegret && best > chosenCost)) {
+                    chosen = order;
+                    chosenRoute = bestRoute;
+                    chosenRegret = regret;
+                    chosenCost = best;
+                }
+            }
+            if (chosen < 0) {
+                break;
+            }
+            insert(chosen, chosenRoute, position[chosen][chosenRoute], built, size, duration, minVehicleType);
+            inserted[chosen] = true;
+            for (int order = 0; order < n; order++) {
+                if (!inserted[order]) {
+                    cost[order][chosenRoute] = cheapestInsertion(order, built[chosenRoute], size[chosenRoute],
+                            duration[chosenRoute], minVehicleType[chosenRoute], chosenRoute, position[order], true);
+                }
+            }
+        }
+
+        for (int order = 0; order < n; order++) {
+            if (inserted[order]) {
+                continue;
+            }
+            int bestRoute = 0;
+            double best = Double.POSITIVE_INFINITY;
+            for (int r = 0; r < routes; r++) {
+                double c = cheapestInsertion(order, built[r], size[r], duration[r], minVehicleType[r], r, position[order], false);
+                if (c < best) {
+                    best = c;
+                    bestRoute = r;
+                }
+            }
+            insert(order, bestRoute, position[order][bestRoute], built, size, duration, minVehicleType);
+        }
+
+        int[][] result = new int[routes][];
+        for (int r = 0; r < routes; r++) {
+            result[r] = Arrays.copyOf(built[r], size[r]);
+        }
+        return toSolution(result);
+    }
+
+    /**
+     * Naprawia poprzedni plan podany jako identyfikatory zleceń każdej trasy: zlecenia, których nie ma już
+     * w żądaniu, są pomijane, a zlecenia bez trasy wstawiane po kolei na najtańszą pozycję w granicach limitów
+     * czasu lub gdziekolwiek, jeśli żadna trasa nie ma miejsca. Zachowane zlecenia pozostają w swoich trasach
+     * i kolejności, więc po niewielkiej zmianie zleceń wyszukiwanie startuje z niemal tych samych tras.
+     * Dłuższe trasy dostają dłuższe zmiany, jak w pozostałych konstrukcjach.
+     */
+    Solution repair(List<List<Long>> previousRoutes, List<Order> orders) {
+        int n = orderCount;
+        Map<Long, Integer> indexById = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indexById.put(orders.get(i).getId(), i);
+        }
+        boolean[] placed = new boolean[n];
+        List<int[]> kept = new ArrayList<>();
+        for (List<Long> ids : previousRoutes) {
+            if (ids == null) {
+                continue;
+            }
+            int[] route = new int[ids.size()];
+            int length = 0;
+            for (Long id : ids) {
+                Integer order = id != null ? indexById.get(id) : null;
+                if (order != null && !placed[order]) {
+                    placed[order] = true;
+                    route[length++] = order;
+                }
+            }
+            if (length > 0) {
+                kept.add(Arrays.copyOf(route, length));
+            }
+        }
+        kept.sort(Comparator.comparingDouble(this::routeDuration).reversed());
+
+        int routes = Math.max(kept.size(), routeCount);
+        int[][] built = new int[routes][n];
+        int[] size = new int[routes];
+        double[] duration = new double[routes];
+        int[] minVehicleType = new int[routes];
+        for (int r = 0; r < kept.size(); r++) {
+            int[] route = kept.get(r);
+            System.arraycopy(route, 0, built[r], 0, route.length);
+            size[r] = route.length;
+            duration[r] = routeDuration(route);
+            for (int order : route) {
+                minVehicleType[r] = Math.max(minVehicleType[r], fleet.orderMinVehicleType(order));
+            }
+        }
+
+        int[] position = new int[routes];
+        for (int order = 0; order < n; order++) {
+            if (placed[order]) {
+                continue;
+            }
+            int bestRoute = -1;
+            int bestPosition = 0;
+            double best = Double.POSITIVE_INFINITY;
+            for (int pass = 0; pass < 2 && bestRoute < 0; pass++) {
+                // najpierw w granicach limitów czasu, potem gdziekolwiek
+                for (int r = 0; r < routes; r++) {
+                    double c = cheapestInsertion(order, built[r], size[r], duration[r], minVehicleType[r], r, position, pass == 0);
+                    if (c < best) {
+                        best = c;
+                        bestRoute = r;
+                        bestPosition = position[r];
+                    }
+                }
+            }
+            insert(order, bestRoute, bestPosition, built, size, duration, minVehicleType);
+        }
+
+        int[][] result = new int[routes][];
+        for (int r = 0; r < routes; r++) {
+            result[r] = Arrays.copyOf(built[r], size[r]);
+        }
+        return toSolution(result);
+    }
+
+    private double routeDuration(int[] route) {
+        double duration = 0.0;
+        int previous = 0;
+        for (int order : route) {
+            duration += matrix.duration(previous, order + 1) + serviceMinutes(order);
+            previous = order + 1;
+        }
+        return duration + matrix.duration(previous, 0);
+    }
+
+    /**
+     * Najmniejszy przyrost dystansu po wstawieniu zlecenia do trasy; pozycja trafia do {@code positions[route]}.
+     *
+     * @return przyrost dystansu lub nieskończoność, jeśli każda pozycja przekracza limit czasu trasy
+     */
+    private double cheapestInsertion(int order, int[] route, int size, double duration, int minVehicleType,
+                                     int routeIndex, int[] positions, boolean limited) {
+        int location = order + 1;
+        double limit = limited
+                ? routeLimit(routeIndex, Math.max(minVehicleType, fleet.orderMinVehicleType(order)))
+                : Double.POSITIVE_INFINITY;
+        double best = Double.POSITIVE_INFINITY;
+        for (int p = 0; p <= size; p++) {
+            int previous = p > 0 ? route[p - 1] + 1 : 0;
+            int next = p < size ? route[p] + 1 : 0;
+            double addedDuration = matrix.duration(previous, location) + serviceMinutes(order)
+                    + matrix.duration(location, next) - matrix.duration(previous, next);
+            if (duration + addedDuration > limit) {
+                continue;
+            }
+            double addedDistance = matrix.distance(previous, location) + matrix.distance(location, location)
+                    + matrix.distance(location, next) - matrix.distance(previous, next);
+            if (addedDistance < best) {
+                best = addedDistance;
+                positions[routeIndex] = p;
+            }
+        }
+        return best;
+    }
+
+    private void insert(int order, int r, int p, int[][] routes, int[] size, double[] duration, int[] minVehicleType) {
+        int location = order + 1;
+        int previous = p > 0 ? routes[r][p - 1] + 1 : 0;
+        int next = p < size[r] ? routes[r][p] + 1 : 0;
+        duration[r] += matrix.duration(previous, location) + serviceMinutes(order)
+                + matrix.duration(location, next) - matrix.duration(previous, next);
+        minVehicleType[r] = Math.max(minVehicleType[r], fleet.orderMinVehicleType(order));
+        System.arraycopy(routes[r], p, routes[r], p + 1, size[r] - p);
+        routes[r][p] = order;
+        size[r]++;
+    }
+
+    /**
+     * Limit czasu w minutach trasy budowanej jako {@code rank}-ta dla zleceń wymagających co najmniej danego
+     * typu pojazdu.
+     */
+    private double routeLimit(int rank, int minVehicleType) {
+        int driver = fleet.driverCount() - 1 - rank;
+        double rankShift = driver >= 0 ? fleet.shiftSeconds(driver) / 60.0 : 0.0;
+        return Math.min(rankShift, maxShiftMinutes[minVehicleType]);
+    }
+
+    private double serviceMinutes(int order) {
+        return matrix.duration(order + 1, order + 1) + SERVICE_TIME_MINUTES * 2;
+    }
+
+    /**
+     * Kąt każdego zlecenia wokół bazy. Zlecenie najdalsze od bazy leży na osi x, a zlecenie najdalsze
+     * od tej osi rozstrzyga, po której jej stronie leżą pozostałe.
+     */
+    double[] angles() {
+        int n = orderCount;
+        double[] angles = new double[n];
+        if (n == 0) {
+            return angles;
+        }
+        double[] radius = new double[n];
+        int reference = 0;
+        for (int i = 0; i < n; i++) {
+            radius[i] = symmetricDistance(0, i + 1);
+            if (radius[i] > radius[reference]) {
+                reference = i;
+            }
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int side = reference;
+        for (int i = 0; i < n; i++) {
+            double angle = lawOfCosines(radius[i], radius[reference], symmetricDistance(i + 1, reference + 1));
+            x[i] = radius[i] * Math.cos(angle);
+            y[i] = radius[i] * Math.sin(angle);
+            if (y[i] > y[side]) {
+                side = i;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (i != side) {
+                // odbicie zlecenia pod oś, jeśli lepiej pasuje to do jego odległości od zlecenia odniesienia strony
+                double measured = symmetricDistance(i + 1, side + 1);
+                double above = Math.hypot(x[i] - x[side], y[i] - y[side]);
+                double below = Math.hypot(x[i] - x[side], -y[i] - y[side]);
+                if (Math.abs(below - measured) < Math.abs(above - measured)) {
+                    y[i] = -y[i];
+                }
+            }
+            angles[i] = Math.atan2(y[i], x[i]) + Math.PI;
+        }
+        return angles;
+    }
+
+    private static double lawOfCosines(double a, double b, double opposite) {
+        if (a <= 0 || b <= 0) {
+            return 0.0;
+        }
+        double cos = (a * a + b * b - opposite * opposite) / (2 * a * b);
+        return Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+    }
+
+    private double symmetricDistance(int from, int to) {
+        return (matrix.distance(from, to) + matrix.distance(to, from)) / 2;
+    }
+
+    /**
+     * Łączy trasy w genom, scalając najkrótsze trasy, dopóki jest ich więcej niż kierowców i pojazdów.
+     * Niewykorzystane separatory trafiają na koniec i tworzą puste trasy.
+     */
+    Solution toSolution(int[][] routes) {
+        if (routes.length > routeCount) {
+            PriorityQueue<int[]> queue = new PriorityQueue<>(Comparator.comparingInt(route -> route.length));
+            queue.addAll(Arrays.asList(routes));
+            while (queue.size() > routeCount) {
+                int[] first = queue.poll();
+                int[] second = queue.poll();
+                int[] merged = Arrays.copyOf(first, first.length + second.length);
+                System.arraycopy(second, 0, merged, first.length, second.length);
+                queue.add(merged);
+            }
+            routes = queue.toArray(new int[0][]);
+        }
+
+        int separators = Math.max(groupCount - 1, 0);
+        int[] sequence = new int[orderCount + separators];
+        int p = 0;
+        int separator = 0;
+        for (int[] route : routes) {
+            if (p > 0 && separator < separators) {
+                sequence[p++] = -1 - separator++;
+            }
+            System.arraycopy(route, 0, sequence, p, route.length);
+            p += route.length;
+        }
+        while (separator < separators) {
+            sequence[p++] = -1 - separator++;
+        }
+        return new Solution(sequence);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.ConvergenceTrace;
+import com.example.optimizer.model.OperatorStatistics;
+import com.example.optimizer.model.RunningOptimization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stan optymalizacji współdzielony przez trajektorie silnika: pula najlepszych rozwiązań,
+ * publikacja postępu, limit czasu i anulowanie, przebieg zbieżności oraz liczniki iteracji, ocen rozwiązań,
+ * trafień listy tabu i statystyki operatorów.
+ */
+public final class SearchContext {
+
+    private final RunningOptimization optimization;
+    // optymalizacja, której anulowanie kończy trajektorie; dla podproblemu dekompozycji jest to optymalizacja całości
+    private final RunningOptimization cancellationSource;
+    private final ElitePool elite;
+    private final ProgressPublisher progress;
+    private final long deadline;
+    private final int eliteShareInterval;
+    // null dla podproblemu dekompozycji, którego oceny nie są porównywalne z oceną całości
+    private final ConvergenceTrace convergence;
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder feasibleEvaluations = new LongAdder();
+    private final LongAdder tabuHits = new LongAdder();
+    // operator -> {proposed, accepted, improved}, w kolejności pierwszego zgłoszenia
+    private final Map<String, long[]> operatorCounters = new LinkedHashMap<>();
+
+    SearchContext(RunningOptimization optimization, ElitePool elite, ProgressPublisher progress, long deadline) {
+        this(optimization, elite, progress, deadline, optimization);
+    }
+
+    /**
+     * Kontekst podproblemu: bez publikacji postępu ({@code progress} = null), anulowany razem z {@code cancellationSource}.
+     */
+    SearchContext(RunningOptimization optimization, ElitePool elite, ProgressPublisher progress, long deadline,
+                  RunningOptimization cancellationSource) {
+        this.optimization = optimization;
+        this.cancellationSource = cancellationSource;
+        this.elite = elite;
+        this.progress = progress;
+        this.deadline = deadline;
+        this.eliteShareInterval = optimization.getSettings().getEliteShareInterval();
+        this.convergence = optimization.getConvergence();
+    }
+
+    public RunningOptimization getOptimization() {
+        return optimization;
+    }
+
+    /**
+     * Czy trajektorie mają działać do upływu limitu czasu zamiast do własnego limitu iteracji.
+     */
+    public boolean isTimeBudgeted() {
+        return deadline != Long.MAX_VALUE;
+    }
+
+    /**
+     * Czy trajektorie mają się zakończyć: upłynął limit czasu albo optymalizację anulowano.
+     */
+    public boolean shouldStop() {
+        return cancellationSource.isCancelled() || (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline);
+    }
+
+    /**
+     * Zgłasza rozwiązanie do puli; zapamiętywane jest tylko lepsze od dotychczasowego najlepszego,
+     * a jego ocena trafia do przebiegu zbieżności.
+     */
+    public void offer(Solution solution, double fitness) {
+        if (elite.offer(solution, fitness) && convergence != null) {
+            convergence.record(fitness, Calculator.isFeasible(fitness), iterations.sum());
+        }
+    }
+
+    /**
+     * Okresowa wymiana z pozostałymi trajektoriami: zgłasza najlepsze rozwiązanie trajektorii
+     * i nadpisuje bieżące najlepszym z puli, jeśli jest lepsze.
+     *
+     * @return true, jeśli current został nadpisany
+     */
+    public boolean exchangeElite(long iteration, Solution best, double bestFitness, Solution current) {
+        if (eliteShareInterval <= 0 || iteration == 0 || iteration % eliteShareInterval != 0) {
+            return false;
+        }
+        offer(best, bestFitness);
+        return elite.copyIfBetter(current, bestFitness);
+    }
+
+    /**
+     * Zlicza iterację i w razie potrzeby publikuje najlepsze dotychczasowe rozwiązanie.
+     */
+    public void iteration() {
+        iterations.increment();
+        if (progress != null) {
+            progress.maybePublish();
+        }
+    }
+
+    /**
+     * Dodaje liczniki operatora zebrane przez trajektorię (zwykle raz, na jej końcu).
+     */
+    public synchronized void recordOperator(String operator, long proposed, long accepted, long improved) {
+        long[] counters = operatorCounters.computeIfAbsent(operator, key -> new long[3]);
+        counters[0] += proposed;
+        counters[1] += accepted;
+        counters[2] += improved;
+    }
+
+    /**
+     * Dolicza ruchy pominięte przez trajektorię, bo były na liście tabu (bez kryterium aspiracji).
+     */
+    public void recordTabuHits(long hits) {
+        tabuHits.add(hits);
+    }
+
+    /**
+     * Dolicza oceny rozwiązań wykonane przez wątek ({@link EvaluationWorkspace#release(SearchContext)}).
+     */
+    void recordEvaluations(long evaluated, long feasible) {
+        evaluations.add(evaluated);
+        feasibleEvaluations.add(feasible);
+    }
+
+    /**
+     * Dolicza iteracje, oceny rozwiązań, trafienia listy tabu i statystyki operatorów kontekstu podproblemu.
+     */
+    void absorb(SearchContext other) {
+        iterations.add(other.getIterations());
+        recordEvaluations(other.getEvaluations(), other.getFeasibleEvaluations());
+        recordTabuHits(other.getTabuHits());
+        for (OperatorStatistics statistics : other.getOperatorStatistics()) {
+            recordOperator(statistics.getOperator(), statistics.getProposed(), statistics.getAccepted(), statistics.getImproved());
+        }
+    }
+
+    long getIterations() {
+        return iterations.sum();
+    }
+
+    long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    long getFeasibleEvaluations() {
+        return feasibleEvaluations.sum();
+    }
+
+    long getTabuHits() {
+        return tabuHits.sum();
+    }
+
+    synchronized List<OperatorStatistics> getOperatorStatistics() {
+        List<OperatorStatistics> statistics = new ArrayList<>();
+        operatorCounters.forEach((operator, counters) ->
+                statistics.add(OperatorStatistics.of(operator, counters[0], counters[1], counters[2])));
+        return statistics;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.optimizer.algorithm;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ograniczona pula wątków, na której równolegle wykonywane są trajektorie przeszukiwania.
+ * Gdy kolejka jest pełna, zadanie wykonuje wątek zlecający, więc obciążenie CPU nie rośnie ponad rozmiar puli.
+ */
+@Slf4j
+@Component
+public class SearchWorkerPool {
+
+    private final ThreadPoolExecutor executor;
+
+    public SearchWorkerPool(@Value("${optimizer.search.pool-size:0}") int poolSize,
+                            @Value("${optimizer.search.queue-capacity:256}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "search-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("Search worker pool started with {} threads", threads);
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.optimizer.algorithm;
+
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * Symulowane wyżarzanie na ruchach adaptacyjnie ważonych operatorów {@link NeighborhoodOperator},
+ * ocenianych przyrostowo przez {@link DeltaEvaluator}.
+ * Jedna iteracja to jeden oceniony ruch. Z budżetem czasu temperatura wraca do początkowej po ostygnięciu.
+ */
+@Component
+public class SimulatedAnnealingEngine implements OptimizationEngine {
+
+    public static final String NAME = "annealing";
+
+    private static final int MAX_ITERATIONS = 20_000;
+    private static final int TEMPERATURE_SAMPLES = 50;
+    private static final double COOLING_RATE = 0.9995;
+    // poniżej tego ułamka temperatury początkowej wyszukiwanie jest wznawiane od temperatury początkowej
+    private static final double REHEAT_RATIO = 1e-4;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void runTrajectory(SearchContext context, Solution current, SplittableRandom rnd) {
+        DeltaEvaluator evaluator = new DeltaEvaluator(current, context.getOptimization());
+        Solution best = current.copy();
+        double bestFitness = evaluator.fitness();
+        double currentFitness = bestFitness;
+        context.offer(best, bestFitness);
+
+        int n = current.size();
+        if (n < 2) {
+            return;
+        }
+        double initialTemperature = initialTemperature(evaluator, currentFitness, n, rnd);
+        double temperature = initialTemperature;
+        boolean timeBudgeted = context.isTimeBudgeted();
+        Neighborhood neighborhood = new Neighborhood(evaluator, context.getOptimization().getNeighborList());
+        Move move = new Move(n);
+
+        for (int iter = 0; timeBudgeted || iter < MAX_ITERATIONS; iter++) {
+            if (context.shouldStop()) {
+                break;
+            }
+            context.iteration();
+
+            if (context.exchangeElite(iter, best, bestFitness, current)) {
+                evaluator.reload();
+                currentFitness = evaluator.fitness();
+            }
+
+            if (neighborhood.sample(rnd, move)) {
+                double candidateFitness = evaluator.evaluateMove(move.from, move.to, move.genes);
+                if (accept(currentFitness, candidateFitness, temperature, rnd)) {
+                    evaluator.applyMove(move.from, move.to, move.genes);
+                    boolean newBest = candidateFitness < bestFitness;
+                    neighborhood.accepted(move, currentFitness, candidateFitness, newBest);
+                    currentFitness = candidateFitness;
+                    if (newBest) {
+                        best.copyFrom(current);
+                        bestFitness = currentFitness;
+                        context.offer(best, bestFitness);
+                    }
+                }
+            }
+            neighborhood.endIteration();
+
+            temperature *= COOLING_RATE;
+            if (timeBudgeted && temperature < initialTemperature * REHEAT_RATIO) {
+                temperature = initialTemperature;
+            }
+        }
+        neighborhood.report(context);
+    }
+
+    /**
+     * Temperatura, w której przeciętna pogarszająca zamiana jest akceptowana z prawdopodobieństwem 1/2.
+     */
+    private static double initialTemperature(DeltaEvaluator evaluator, double fitness, int n, SplittableRandom rnd) {
+        double worsening = 0.0;
+        int count = 0;
+        for (int s = 0; s < TEMPERATURE_SAMPLES; s++) {
+            double candidate = evaluator.evaluateSwap(rnd.nextInt(n), rnd.nextInt(n));
+            if (candidate > fitness && Calculator.isFeasible(candidate)) {
+                worsening += candidate - fitness;
+                count++;
+            }
+        }
+        return count > 0 ? worsening / count / Math.log(2) : 1.0;
+    }
+
+    static boolean accept(double currentFitness, double candidateFitness, double temperature, SplittableRandom rnd) {
+        if (candidateFitness <= currentFitness) {
+            return true;
+        }
+        if (!Calculator.isFeasible(candidateFitness) && Calculator.isFeasible(currentFitness)) {
+            return false;
+        }
+        return rnd.nextDouble() < Math.exp((currentFitness - candidateFitness) / temperature);
+    }
+}
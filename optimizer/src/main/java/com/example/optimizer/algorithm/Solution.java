@@ -2,46 +2,62 @@ package com.example.optimizer.algorithm;
 
 import com.example.optimizer.model.RunningOptimization;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 
 public class Solution {
-    private final List<Integer> sequence;
+    private final int[] sequence;
 
-    public Solution(int orderCount, int groupCount) {
+    public Solution(int orderCount, int groupCount, SplittableRandom random) {
         // liczby od 0 do orderCount-1 to identyfikatory zleceń
         // od -1 do -groupCount to zmiana trasy (grupy zleceń)
-        sequence = new ArrayList<>(orderCount + groupCount);
+        sequence = new int[orderCount + Math.max(groupCount - 1, 0)];
         for (int i = 0; i < orderCount; i++) {
-            sequence.add(i);
+            sequence[i] = i;
         }
         for (int i = 0; i < groupCount-1; i++) {
-            sequence.add(-1 - i);
+            sequence[orderCount + i] = -1 - i;
         }
-        // przetasowanie tablicy
-        Collections.shuffle(sequence, ThreadLocalRandom.current());
+        // przetasowanie tablicy (Fisher-Yates)
+        for (int i = sequence.length - 1; i > 0; i--) {
+            swap(i, random.nextInt(i + 1));
+        }
+    }
+
+    public Solution(int[] existingSequence) {
+        this.sequence = existingSequence.clone();
     }
 
-    public Solution(List<Integer> existingSequence) {
-        this.sequence = new ArrayList<>(existingSequence);
+    public void swapRandom(SplittableRandom random) {
+        int index1 = random.nextInt(sequence.length);
+        int index2 = random.nextInt(sequence.length);
+        swap(index1, index2);
     }
 
-    public void swapRandom() {
-        int index1 = (int) (Math.random() * sequence.size());
-        int index2 = (int) (Math.random() * sequence.size());
-        Collections.swap(sequence, index1, index2);
+    public void swap(int index1, int index2) {
+        int gene = sequence[index1];
+        sequence[index1] = sequence[index2];
+        sequence[index2] = gene;
     }
 
-    public List<Integer> getSequence() {
+    public int[] getSequence() {
         return sequence;
     }
 
+    public int size() {
+        return sequence.length;
+    }
+
     public Solution copy() {
         return new Solution(this.sequence);
     }
 
+    /**
+     * Nadpisuje genom wartościami z innego rozwiązania tej samej długości, bez alokacji.
+     */
+    public void copyFrom(Solution other) {
+        System.arraycopy(other.sequence, 0, sequence, 0, sequence.length);
+    }
+
     public double fitness(RunningOptimization optimization) {
         return Calculator.calculateFitness(this, optimization);
     }
@@ -0,0 +1,101 @@
+package com.example.optimizer.algorithm;
+
+/**
+ * Lista tabu o stałej pojemności dla atrybutów zakodowanych jako {@code long}.
+ * Kolejność dodania przechowuje bufor cykliczny, a przynależność tablica z adresowaniem otwartym
+ * (sondowanie liniowe, licznik wystąpień, usuwanie przez przesunięcie wstecz), więc sprawdzenie
+ * i dodanie nie alokują pamięci. Po zapełnieniu najstarszy wpis wypada z listy.
+ */
+final class TabuList {
+
+    private final long[] ring;
+    private int ringHead;
+    private int ringSize;
+
+    private final long[] keys;
+    // 0 oznacza wolne miejsce w tablicy
+    private final int[] counts;
+    private final int mask;
+    private final int shift;
+
+    TabuList(int tenure) {
+        ring = new long[Math.max(tenure, 1)];
+        int capacity = Integer.highestOneBit(Math.max(ring.length * 2, 8) - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Klucz zamiany pozycji a i b, niezależny od ich kolejności.
+     */
+    static long move(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | (Math.max(a, b) & 0xffffffffL);
+    }
+
+    /**
+     * Klucz ruchu operatora przestawiającego zakres pozycji from..to; dla operatora 0 (zamiany) równy {@link #move}.
+     */
+    static long move(int operator, int from, int to) {
+        return move(from, to) ^ ((long) operator << 59);
+    }
+
+    /**
+     * Klucz atrybutu "zlecenie w trasie".
+     */
+    static long orderInRoute(int order, int route) {
+        return ((long) order << 32) | (route & 0xffffffffL);
+    }
+
+    boolean contains(long key) {
+        for (int slot = slot(key); counts[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(long key) {
+        if (ringSize == ring.length) {
+            remove(ring[ringHead]);
+        } else {
+            ringSize++;
+        }
+        ring[ringHead] = key;
+        ringHead = ringHead + 1 == ring.length ? 0 : ringHead + 1;
+
+        int slot = slot(key);
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot]++;
+    }
+
+    private void remove(long key) {
+        int slot = slot(key);
+        while (keys[slot] != key || counts[slot] == 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (--counts[slot] > 0) {
+            return;
+        }
+        // przesunięcie wstecz kolejnych wpisów, aby sondowanie nie urwało się na zwolnionym miejscu
+        int free = slot;
+        for (int next = (free + 1) & mask; counts[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                counts[free] = counts[next];
+                counts[next] = 0;
+                free = next;
+            }
+        }
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.OptimizationSettings;
+import com.example.optimizer.model.RunningOptimization;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * Przeszukiwanie tabu na próbkowanych sąsiedztwach adaptacyjnie ważonych operatorów {@link NeighborhoodOperator},
+ * oceniane przyrostowo przez {@link DeltaEvaluator}.
+ */
+@Component
+public class TabuSearchEngine implements OptimizationEngine {
+
+    public static final String NAME = "tabu";
+
+    // Parametry (do dostrojenia w razie potrzeby)
+    private static final int MAX_ITERATIONS = 1000;
+    private static final int NEIGHBOR_SAMPLES = 20;
+    private static final int NO_IMPROVEMENT_LIMIT = 50;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void runTrajectory(SearchContext context, Solution current, SplittableRandom rnd) {
+        RunningOptimization optimization = context.getOptimization();
+        OptimizationSettings settings = optimization.getSettings();
+        final int orderTabuTenure = settings.getOrderTabuTenure();
+        final boolean timeBudgeted = context.isTimeBudgeted();
+
+        DeltaEvaluator evaluator = new DeltaEvaluator(current, optimization);
+        Solution best = current.copy();
+        double bestFitness = evaluator.fitness();
+        context.offer(best, bestFitness);
+
+        int n = current.size();
+        if (n < 2) {
+            return;
+        }
+
+        TabuList tabuMoves = new TabuList(settings.getTabuTenure());
+        // tabu atrybutów: zlecenie przeniesione z trasy nie może do niej wrócić
+        TabuList tabuOrders = orderTabuTenure > 0 ? new TabuList(2 * orderTabuTenure) : null;
+        int[] orderRoutes = tabuOrders != null ? new int[optimization.getOrders().size()] : null;
+
+        Neighborhood neighborhood = new Neighborhood(evaluator, context.getOptimization().getNeighborList());
+        Move move = new Move(n);
+        Move bestMove = new Move(n);
+
+        int iterationsWithoutImprovement = 0;
+        // próbkowane ruchy pominięte, bo były tabu i nie spełniły kryterium aspiracji
+        long tabuHits = 0;
+
+        for (int iter = 0; timeBudgeted || iter < MAX_ITERATIONS; iter++) {
+            if (context.shouldStop()) {
+                break;
+            }
+            context.iteration();
+
+            boolean candidateFound = false;
+            double bestCandidateFitness = Double.MAX_VALUE;
+            long bestCandidateMoveKey = 0;
+
+            // okresowa wymiana elitarnych rozwiązań między trajektoriami
+            if (context.exchangeElite(iter, best, bestFitness, current)) {
+                evaluator.reload();
+            }
+
+            // próbkowanie sąsiedztwa (ruchy adaptacyjnie wybieranych operatorów)
+            for (int s = 0; s < NEIGHBOR_SAMPLES; s++) {
+                if (!neighborhood.sample(rnd, move)) continue;
+
+                long moveKey = TabuList.move(move.operator.ordinal(), move.from, move.to);
+
+                // przyrostowa ocena kandydata, tylko trasy zmienione przez ruch
+                double candidateFitness = evaluator.evaluateMove(move.from, move.to, move.genes);
+
+                boolean isTabu = tabuMoves.contains(moveKey)
+                        || (tabuOrders != null && returnsToTabuRoute(evaluator, move, tabuOrders, orderRoutes));
+                boolean aspiration = candidateFitness < bestFitness;
+
+                if (isTabu && !aspiration) {
+                    tabuHits++;
+                    continue;
+                }
+
+                if (candidateFitness < bestCandidateFitness) {
+                    bestMove.copyFrom(move);
+                    bestCandidateFitness = candidateFitness;
+                    bestCandidateMoveKey = moveKey;
+                    candidateFound = true;
+                }
+            }
+
+            if (!candidateFound) {
+                // brak dopuszczalnego kandydata w tej iteracji
+                break;
+            }
+
+            // aktualizacja list tabu (dla ruchu, który zaraz zostanie wykonany)
+            tabuMoves.add(bestCandidateMoveKey);
+            if (tabuOrders != null) {
+                forbidReturn(evaluator, bestMove, tabuOrders, orderRoutes);
+            }
+
+            // przejście do najlepszego kandydata
+            double previousFitness = evaluator.fitness();
+            evaluator.applyMove(bestMove.from, bestMove.to, bestMove.genes);
+            boolean newBest = bestCandidateFitness < bestFitness;
+            neighborhood.accepted(bestMove, previousFitness, bestCandidateFitness, newBest);
+            neighborhood.endIteration();
+
+            // aktualizacja najlepszego wyniku trajektorii
+            if (newBest) {
+                best.copyFrom(current);
+                bestFitness = bestCandidateFitness;
+                context.offer(best, bestFitness);
+                iterationsWithoutImprovement = 0;
+            } else {
+                iterationsWithoutImprovement++;
+            }
+
+            if (iterationsWithoutImprovement >= NO_IMPROVEMENT_LIMIT) {
+                break;
+            }
+        }
+        neighborhood.report(context);
+        context.recordTabuHits(tabuHits);
+    }
+
+    /**
+     * Czy ruch przeniósłby zlecenie z powrotem do trasy, którą niedawno opuściło.
+     */
+    private static boolean returnsToTabuRoute(DeltaEvaluator evaluator, Move move, TabuList tabuOrders, int[] orderRoutes) {
+        if (move.operator == NeighborhoodOperator.TWO_OPT) {
+            // pozostaje w obrębie jednej trasy
+            return false;
+        }
+        routesBefore(evaluator, move, orderRoutes);
+        int route = routeAfter(evaluator, move);
+        for (int k = move.length() - 1; k >= 0; k--) {
+            int gene = move.genes[k];
+            if (gene < 0) {
+                route = gene;
+            } else if (route != orderRoutes[gene] && tabuOrders.contains(TabuList.orderInRoute(gene, route))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zapisuje, że zlecenia przenoszone przez ruch do innej trasy nie mogą wrócić do swoich obecnych tras.
+     */
+    private static void forbidReturn(DeltaEvaluator evaluator, Move move, TabuList tabuOrders, int[] orderRoutes) {
+        if (move.operator == NeighborhoodOperator.TWO_OPT) {
+            return;
+        }
+        routesBefore(evaluator, move, orderRoutes);
+        int route = routeAfter(evaluator, move);
+        for (int k = move.length() - 1; k >= 0; k--) {
+            int gene = move.genes[k];
+            if (gene < 0) {
+                route = gene;
+            } else if (route != orderRoutes[gene]) {
+                tabuOrders.add(TabuList.orderInRoute(gene, orderRoutes[gene]));
+            }
+        }
+    }
+
+    /**
+     * Zapamiętuje etykietę trasy (zob. {@link DeltaEvaluator#routeLabel}) każdego zlecenia z zakresu ruchu
+     * sprzed wykonania ruchu.
+     */
+    private static void routesBefore(DeltaEvaluator evaluator, Move move, int[] orderRoutes) {
+        int[] sequence = evaluator.getSolution().getSequence();
+        int route = routeAfter(evaluator, move);
+        for (int p = move.to; p >= move.from; p--) {
+            if (sequence[p] < 0) {
+                route = sequence[p];
+            } else {
+                orderRoutes[sequence[p]] = route;
+            }
+        }
+    }
+
+    /**
+     * Etykieta trasy zawierającej pozycję za zakresem ruchu, której ruch nie zmienia.
+     */
+    private static int routeAfter(DeltaEvaluator evaluator, Move move) {
+        return move.to + 1 < evaluator.getSolution().size() ? evaluator.routeLabel(move.to + 1) : 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.optimizer.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Odczyt wartości zapisanych przez {@link BinaryWriter}.
+ * Niekompletne dane zgłaszane są jako {@link MalformedPayloadException}.
+ */
+public class BinaryReader {
+
+    private final ByteBuffer buffer;
+
+    public BinaryReader(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int readByte() {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public int readInt() {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public long readLong() {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public double readDouble() {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public float readFloat() {
+        try {
+            return buffer.getFloat();
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+    }
+
+    public void readDoubles(double[] target) {
+        if (buffer.remaining() < 8L * target.length) {
+            throw truncated();
+        }
+        buffer.asDoubleBuffer().get(target);
+        buffer.position(buffer.position() + 8 * target.length);
+    }
+
+    public void readFloats(double[] target) {
+        if (buffer.remaining() < 4L * target.length) {
+            throw truncated();
+        }
+        FloatBuffer floats = buffer.asFloatBuffer();
+        for (int i = 0; i < target.length; i++) {
+            target[i] = floats.get();
+        }
+        buffer.position(buffer.position() + 4 * target.length);
+    }
+
+    public byte[] readBytes(int length) {
+        byte[] value = new byte[length];
+        try {
+            buffer.get(value);
+        } catch (BufferUnderflowException e) {
+            throw truncated();
+        }
+        return value;
+    }
+
+    /**
+     * Odczytuje licznik elementów i sprawdza, czy zmieszczą się w pozostałych danych.
+     */
+    public int readCount(int minBytesPerElement) {
+        int count = readInt();
+        if (count < 0 || (long) count * minBytesPerElement > buffer.remaining()) {
+            throw new MalformedPayloadException("Invalid element count: " + count);
+        }
+        return count;
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    private MalformedPayloadException truncated() {
+        return new MalformedPayloadException("Unexpected end of payload");
+    }
+}
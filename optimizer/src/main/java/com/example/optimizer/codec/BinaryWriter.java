@@ -0,0 +1,90 @@
+package com.example.optimizer.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Rosnący bufor zapisujący wartości w kolejności little-endian.
+ */
+public class BinaryWriter {
+
+    private ByteBuffer buffer;
+
+    public BinaryWriter(int initialCapacity) {
+        buffer = ByteBuffer.allocate(Math.max(initialCapacity, 64)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public BinaryWriter writeByte(int value) {
+        ensure(1).put((byte) value);
+        return this;
+    }
+
+    public BinaryWriter writeInt(int value) {
+        ensure(4).putInt(value);
+        return this;
+    }
+
+    public BinaryWriter writeLong(long value) {
+        ensure(8).putLong(value);
+        return this;
+    }
+
+    public BinaryWriter writeDouble(double value) {
+        ensure(8).putDouble(value);
+        return this;
+    }
+
+    public BinaryWriter writeFloat(float value) {
+        ensure(4).putFloat(value);
+        return this;
+    }
+
+    /**
+     * Zapisuje całą tablicę jednym kopiowaniem przez widok bufora.
+     */
+    public BinaryWriter writeDoubles(double[] values) {
+        ByteBuffer target = ensure(8 * values.length);
+        target.asDoubleBuffer().put(values);
+        target.position(target.position() + 8 * values.length);
+        return this;
+    }
+
+    /**
+     * Zapisuje tablicę z obcięciem wartości do float32.
+     */
+    public BinaryWriter writeFloats(double[] values) {
+        ByteBuffer target = ensure(4 * values.length);
+        FloatBuffer floats = target.asFloatBuffer();
+        for (double value : values) {
+            floats.put((float) value);
+        }
+        target.position(target.position() + 4 * values.length);
+        return this;
+    }
+
+    public BinaryWriter writeBytes(byte[] value) {
+        ensure(value.length).put(value);
+        return this;
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
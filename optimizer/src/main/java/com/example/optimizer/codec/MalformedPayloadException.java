@@ -0,0 +1,7 @@
+package com.example.optimizer.codec;
+
+public class MalformedPayloadException extends RuntimeException {
+    public MalformedPayloadException(String message) {
+        super(message);
+    }
+}
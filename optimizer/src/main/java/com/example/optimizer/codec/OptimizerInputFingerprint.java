@@ -0,0 +1,140 @@
+package com.example.optimizer.codec;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Skrót SHA-256 danych wejściowych optymalizacji: zleceń (w kolejności z żądania, bo wyznacza ona indeksy macierzy),
+ * kierowców i pojazdów posortowanych po id, macierzy odległości i czasów, poprzedniego planu, ziarna oraz parametrów
+ * wpływających na wynik.
+ * Identyfikator planowania, adres powiadomień i interwał publikacji nie wchodzą do skrótu, więc ponowne
+ * zlecenie tych samych danych daje ten sam skrót.
+ */
+public final class OptimizerInputFingerprint {
+
+    private OptimizerInputFingerprint() {
+    }
+
+    /**
+     * @param settings parametry z uzupełnionymi wartościami domyślnymi ({@link OptimizationSettings#withDefaults})
+     */
+    public static String of(OptimizerRequest request, OptimizationSettings settings) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+
+        List<Order> orders = request.getOrders() != null ? request.getOrders() : List.of();
+        buffer.putInt(orders.size());
+        for (Order order : orders) {
+            ensureCapacity(digest, buffer, 16);
+            buffer.putLong(order.getId()).putDouble(order.getCargoWeight());
+        }
+
+        Set<Driver> drivers = request.getDrivers() != null ? request.getDrivers() : Set.of();
+        ensureCapacity(digest, buffer, 4);
+        buffer.putInt(drivers.size());
+        for (Driver driver : drivers.stream().sorted(Comparator.comparing(Driver::getId)).toList()) {
+            ensureCapacity(digest, buffer, 20);
+            buffer.putLong(driver.getId())
+                    .putInt(OptimizerRequestCodec.licenceMask(driver.getLicences()))
+                    .putInt(driver.getWorkStart() != null ? driver.getWorkStart().toSecondOfDay() : -1)
+                    .putInt(driver.getWorkEnd() != null ? driver.getWorkEnd().toSecondOfDay() : -1);
+        }
+
+        Set<Vehicle> vehicles = request.getVehicles() != null ? request.getVehicles() : Set.of();
+        ensureCapacity(digest, buffer, 4);
+        buffer.putInt(vehicles.size());
+        for (Vehicle vehicle : vehicles.stream().sorted(Comparator.comparing(Vehicle::getId)).toList()) {
+            ensureCapacity(digest, buffer, 9);
+            buffer.putLong(vehicle.getId())
+                    .put((byte) (vehicle.getVehicleType() != null ? vehicle.getVehicleType().ordinal() : -1));
+        }
+
+        putMatrix(digest, buffer, request.getDistanceMatrix());
+        putMatrix(digest, buffer, request.getDurationMatrix());
+
+        List<List<Long>> previousRoutes = request.getPreviousRoutes() != null ? request.getPreviousRoutes() : List.of();
+        ensureCapacity(digest, buffer, 4);
+        buffer.putInt(previousRoutes.size());
+        for (List<Long> route : previousRoutes) {
+            List<Long> orderIds = route != null ? route : List.of();
+            ensureCapacity(digest, buffer, 4);
+            buffer.putInt(orderIds.size());
+            for (Long id : orderIds) {
+                ensureCapacity(digest, buffer, 8);
+                buffer.putLong(id != null ? id : -1);
+            }
+        }
+
+        ensureCapacity(digest, buffer, 64);
+        buffer.putInt(settings.getThreads())
+                .putInt(settings.getStarts())
+                .putInt(settings.getEliteShareInterval())
+                .putLong(settings.getTimeBudgetMillis())
+                .putInt(settings.getTabuTenure())
+                .putInt(settings.getOrderTabuTenure())
+                .putInt(settings.getNeighborCount())
+                .putInt(settings.getClusterSize())
+                .putLong(request.getSeed() != null ? request.getSeed() : 0L)
+                .put((byte) (request.getSeed() != null ? 1 : 0));
+        putText(digest, buffer, settings.getEngine());
+        putText(digest, buffer, settings.getConstruction());
+
+        flush(digest, buffer);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void putMatrix(MessageDigest digest, ByteBuffer buffer, double[][] matrix) {
+        ensureCapacity(digest, buffer, 4);
+        if (matrix == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(matrix.length);
+        for (double[] row : matrix) {
+            ensureCapacity(digest, buffer, 4);
+            buffer.putInt(row.length);
+            for (double value : row) {
+                ensureCapacity(digest, buffer, 8);
+                buffer.putDouble(value);
+            }
+        }
+    }
+
+    private static void putText(MessageDigest digest, ByteBuffer buffer, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(digest, buffer, 4);
+        buffer.putInt(bytes.length);
+        flush(digest, buffer);
+        digest.update(bytes);
+    }
+
+    private static void ensureCapacity(MessageDigest digest, ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush(digest, buffer);
+        }
+    }
+
+    private static void flush(MessageDigest digest, ByteBuffer buffer) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.optimizer.codec;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Binarna postać {@link OptimizerRequest}, używana w dzienniku zadań i (z nagłówkiem {@link OptimizerRequestFrame})
+ * jako alternatywa dla JSON w {@code POST /api/optimizer}. Macierze zapisywane są wierszami jako float64 lub float32.
+ * Parametry przeszukiwania, ziarno i adres powiadomień zapisywane są jako pary (znacznik, wartość); nieznane znaczniki
+ * są pomijane przy odczycie.
+ * Znaczniki od {@value #FIRST_TEXT_SETTING} mają wartość o zmiennej długości (długość i bajty: tekst UTF-8
+ * lub, dla poprzedniego planu, liczba tras i dla każdej liczba zleceń oraz ich identyfikatory), pozostałe liczbę long.
+ */
+public final class OptimizerRequestCodec {
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private static final int SETTING_THREADS = 1;
+    private static final int SETTING_STARTS = 2;
+    private static final int SETTING_ELITE_SHARE_INTERVAL = 3;
+    private static final int SETTING_TIME_BUDGET_MILLIS = 4;
+    private static final int SETTING_PUBLISH_INTERVAL_MILLIS = 5;
+    private static final int SETTING_TABU_TENURE = 6;
+    private static final int SETTING_ORDER_TABU_TENURE = 7;
+    private static final int SETTING_NEIGHBOR_COUNT = 8;
+    private static final int SETTING_CLUSTER_SIZE = 9;
+    private static final int SETTING_SEED = 10;
+
+    private static final int FIRST_TEXT_SETTING = 100;
+    private static final int SETTING_ENGINE = 100;
+    private static final int SETTING_CONSTRUCTION = 101;
+    private static final int SETTING_CALLBACK_URL = 102;
+    private static final int SETTING_CALLBACK_TOKEN = 103;
+    private static final int SETTING_PREVIOUS_ROUTES = 104;
+
+    private OptimizerRequestCodec() {
+    }
+
+    public static byte[] encode(OptimizerRequest request) {
+        return encode(request, false);
+    }
+
+    public static byte[] encode(OptimizerRequest request, boolean float32Matrices) {
+        int locations = request.getDistanceMatrix() != null ? request.getDistanceMatrix().length : 0;
+        BinaryWriter writer = new BinaryWriter(1024 + (float32Matrices ? 8 : 16) * locations * locations);
+        write(writer, request, float32Matrices);
+        return writer.toByteArray();
+    }
+
+    public static OptimizerRequest decode(byte[] bytes) {
+        return read(new BinaryReader(bytes));
+    }
+
+    public static void write(BinaryWriter writer, OptimizerRequest request) {
+        write(writer, request, false);
+    }
+
+    public static void write(BinaryWriter writer, OptimizerRequest request, boolean float32Matrices) {
+        writer.writeLong(request.getPlanningId());
+
+        Set<Driver> drivers = request.getDrivers() != null ? request.getDrivers() : Set.of();
+        writer.writeInt(drivers.size());
+        for (Driver driver : drivers) {
+            writer.writeLong(driver.getId());
+            writer.writeInt(licenceMask(driver.getLicences()));
+            writer.writeInt(driver.getWorkStart() != null ? driver.getWorkStart().toSecondOfDay() : -1);
+            writer.writeInt(driver.getWorkEnd() != null ? driver.getWorkEnd().toSecondOfDay() : -1);
+        }
+
+        Set<Vehicle> vehicles = request.getVehicles() != null ? request.getVehicles() : Set.of();
+        writer.writeInt(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            writer.writeLong(vehicle.getId());
+            writer.writeByte(vehicle.getVehicleType() != null ? vehicle.getVehicleType().ordinal() : -1);
+        }
+
+        List<Order> orders = request.getOrders() != null ? request.getOrders() : List.of();
+        writer.writeInt(orders.size());
+        for (Order order : orders) {
+            writer.writeLong(order.getId());
+            writer.writeDouble(order.getCargoWeight());
+        }
+
+        writeMatrix(writer, request.getDistanceMatrix(), float32Matrices);
+        writeMatrix(writer, request.getDurationMatrix(), float32Matrices);
+        writeSettings(writer, request);
+    }
+
+    public static OptimizerRequest read(BinaryReader reader) {
+        return read(reader, false);
+    }
+
+    public static OptimizerRequest read(BinaryReader reader, boolean float32Matrices) {
+        long planningId = reader.readLong();
+
+        int driverCount = reader.readCount(20);
+        Set<Driver> drivers = new HashSet<>(driverCount * 2);
+        for (int i = 0; i < driverCount; i++) {
+            long id = reader.readLong();
+            int licences = reader.readInt();
+            int workStart = reader.readInt();
+            int workEnd = reader.readInt();
+            drivers.add(Driver.builder()
+                    .id(id)
+                    .licences(licences(licences))
+                    .workStart(workStart >= 0 ? LocalTime.ofSecondOfDay(workStart) : null)
+                    .workEnd(workEnd >= 0 ? LocalTime.ofSecondOfDay(workEnd) : null)
+                    .build());
+        }
+
+        int vehicleCount = reader.readCount(9);
+        Set<Vehicle> vehicles = new HashSet<>(vehicleCount * 2);
+        for (int i = 0; i < vehicleCount; i++) {
+            long id = reader.readLong();
+            int type = reader.readByte();
+            vehicles.add(Vehicle.builder()
+                    .id(id)
+                    .vehicleType(type >= 0 && type < VEHICLE_TYPES.length ? VEHICLE_TYPES[type] : null)
+                    .build());
+        }
+
+        int orderCount = reader.readCount(16);
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(Order.builder()
+                    .id(reader.readLong())
+                    .cargoWeight(reader.readDouble())
+                    .build());
+        }
+
+        double[][] distanceMatrix = readMatrix(reader, float32Matrices);
+        double[][] durationMatrix = readMatrix(reader, float32Matrices);
+
+        OptimizerRequest request = OptimizerRequest.builder()
+                .planningId(planningId)
+                .drivers(drivers)
+                .vehicles(vehicles)
+                .orders(orders)
+                .distanceMatrix(distanceMatrix)
+                .durationMatrix(durationMatrix)
+                .build();
+        readSettings(reader, request);
+        return request;
+    }
+
+    private static void writeMatrix(BinaryWriter writer, double[][] matrix, boolean float32) {
+        if (matrix == null) {
+            writer.writeInt(-1);
+            return;
+        }
+        writer.writeInt(matrix.length);
+        for (double[] row : matrix) {
+            if (row.length != matrix.length) {
+                throw new IllegalArgumentException("Matrix must be square");
+            }
+            if (float32) {
+                writer.writeFloats(row);
+            } else {
+                writer.writeDoubles(row);
+            }
+        }
+    }
+
+    private static double[][] readMatrix(BinaryReader reader, boolean float32) {
+        int size = reader.readInt();
+        if (size < 0) {
+            return null;
+        }
+        if ((long) size * size * (float32 ? 4 : 8) > reader.remaining()) {
+            throw new MalformedPayloadException("Invalid matrix size: " + size);
+        }
+        double[][] matrix = new double[size][size];
+        for (double[] row : matrix) {
+            if (float32) {
+                reader.readFloats(row);
+            } else {
+                reader.readDoubles(row);
+            }
+        }
+        return matrix;
+    }
+
+    private static void writeSettings(BinaryWriter writer, OptimizerRequest request) {
+        OptimizationSettings settings = request.getSettings() != null ? request.getSettings() : new OptimizationSettings();
+        Map<Integer, Long> values = new LinkedHashMap<>();
+        putIfPresent(values, SETTING_THREADS, settings.getThreads());
+        putIfPresent(values, SETTING_STARTS, settings.getStarts());
+        putIfPresent(values, SETTING_ELITE_SHARE_INTERVAL, settings.getEliteShareInterval());
+        putIfPresent(values, SETTING_TIME_BUDGET_MILLIS, settings.getTimeBudgetMillis());
+        putIfPresent(values, SETTING_PUBLISH_INTERVAL_MILLIS, settings.getPublishIntervalMillis());
+        putIfPresent(values, SETTING_TABU_TENURE, settings.getTabuTenure());
+        putIfPresent(values, SETTING_ORDER_TABU_TENURE, settings.getOrderTabuTenure());
+        putIfPresent(values, SETTING_NEIGHBOR_COUNT, settings.getNeighborCount());
+        putIfPresent(values, SETTING_CLUSTER_SIZE, settings.getClusterSize());
+        putIfPresent(values, SETTING_SEED, request.getSeed());
+        Map<Integer, byte[]> blobs = new LinkedHashMap<>();
+        putTextIfPresent(blobs, SETTING_ENGINE, settings.getEngine());
+        putTextIfPresent(blobs, SETTING_CONSTRUCTION, settings.getConstruction());
+        putTextIfPresent(blobs, SETTING_CALLBACK_URL, request.getCallbackUrl());
+        putTextIfPresent(blobs, SETTING_CALLBACK_TOKEN, request.getCallbackToken());
+        if (request.getPreviousRoutes() != null) {
+            blobs.put(SETTING_PREVIOUS_ROUTES, encodeRoutes(request.getPreviousRoutes()));
+        }
+        writer.writeByte(values.size() + blobs.size());
+        values.forEach((tag, value) -> writer.writeByte(tag).writeLong(value));
+        blobs.forEach((tag, bytes) -> writer.writeByte(tag).writeInt(bytes.length).writeBytes(bytes));
+    }
+
+    private static void putTextIfPresent(Map<Integer, byte[]> blobs, int tag, String value) {
+        if (value != null) {
+            blobs.put(tag, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] encodeRoutes(List<List<Long>> routes) {
+        int ids = 0;
+        for (List<Long> route : routes) {
+            ids += route != null ? route.size() : 0;
+        }
+        BinaryWriter writer = new BinaryWriter(4 + 4 * routes.size() + 8 * ids);
+        writer.writeInt(routes.size());
+        for (List<Long> route : routes) {
+            List<Long> orderIds = route != null ? route : List.of();
+            writer.writeInt(orderIds.size());
+            for (Long id : orderIds) {
+                writer.writeLong(id);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static List<List<Long>> decodeRoutes(byte[] bytes) {
+        BinaryReader reader = new BinaryReader(bytes);
+        int routeCount = reader.readCount(4);
+        List<List<Long>> routes = new ArrayList<>(routeCount);
+        for (int r = 0; r < routeCount; r++) {
+            int size = reader.readCount(8);
+            List<Long> route = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                route.add(reader.readLong());
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Odczytuje parametry przeszukiwania, ziarno i adres powiadomień do zlecenia; bez parametrów przeszukiwania
+     * {@code settings} pozostaje null (wartości domyślne).
+     */
+    private static void readSettings(BinaryReader reader, OptimizerRequest request) {
+        int count = reader.readByte();
+        OptimizationSettings settings = new OptimizationSettings();
+        boolean anySetting = false;
+        for (int i = 0; i < count; i++) {
+            int tag = reader.readByte();
+            if (tag >= FIRST_TEXT_SETTING) {
+                byte[] bytes = reader.readBytes(reader.readCount(1));
+                switch (tag) {
+                    case SETTING_ENGINE -> settings.setEngine(new String(bytes, StandardCharsets.UTF_8));
+                    case SETTING_CONSTRUCTION -> settings.setConstruction(new String(bytes, StandardCharsets.UTF_8));
+                    case SETTING_CALLBACK_URL -> request.setCallbackUrl(new String(bytes, StandardCharsets.UTF_8));
+                    case SETTING_CALLBACK_TOKEN -> request.setCallbackToken(new String(bytes, StandardCharsets.UTF_8));
+                    case SETTING_PREVIOUS_ROUTES -> request.setPreviousRoutes(decodeRoutes(bytes));
+                    default -> {
+                        // parametr z nowszej wersji, pomijany
+                    }
+                }
+                anySetting |= tag == SETTING_ENGINE || tag == SETTING_CONSTRUCTION;
+                continue;
+            }
+            anySetting |= tag != SETTING_SEED;
+            long value = reader.readLong();
+            switch (tag) {
+                case SETTING_THREADS -> settings.setThreads((int) value);
+                case SETTING_STARTS -> settings.setStarts((int) value);
+                case SETTING_ELITE_SHARE_INTERVAL -> settings.setEliteShareInterval((int) value);
+                case SETTING_TIME_BUDGET_MILLIS -> settings.setTimeBudgetMillis(value);
+                case SETTING_PUBLISH_INTERVAL_MILLIS -> settings.setPublishIntervalMillis(value);
+                case SETTING_TABU_TENURE -> settings.setTabuTenure((int) value);
+                case SETTING_ORDER_TABU_TENURE -> settings.setOrderTabuTenure((int) value);
+                case SETTING_NEIGHBOR_COUNT -> settings.setNeighborCount((int) value);
+                case SETTING_CLUSTER_SIZE -> settings.setClusterSize((int) value);
+                case SETTING_SEED -> request.setSeed(value);
+                default -> {
+                    // parametr z nowszej wersji, pomijany
+                }
+            }
+        }
+        request.setSettings(anySetting ? settings : null);
+    }
+
+    private static void putIfPresent(Map<Integer, Long> values, int tag, Number value) {
+        if (value != null) {
+            values.put(tag, value.longValue());
+        }
+    }
+
+    static int licenceMask(Set<VehicleType> licences) {
+        int mask = 0;
+        if (licences != null) {
+            for (VehicleType type : licences) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    static Set<VehicleType> licences(int mask) {
+        Set<VehicleType> licences = EnumSet.noneOf(VehicleType.class);
+        for (VehicleType type : VEHICLE_TYPES) {
+            if ((mask & (1 << type.ordinal())) != 0) {
+                licences.add(type);
+            }
+        }
+        return licences;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.optimizer.codec;
+
+import com.example.optimizer.dto.OptimizerRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Format przesyłu {@link OptimizerRequest} jako {@value #CONTENT_TYPE}:
+ * nagłówek [magic "OPTR"][wersja][flagi][długość treści] i treść z {@link OptimizerRequestCodec},
+ * opcjonalnie skompresowana algorytmem deflate. Wszystkie liczby w kolejności little-endian.
+ */
+public final class OptimizerRequestFrame {
+
+    public static final String CONTENT_TYPE = "application/x-optimizer-request";
+
+    public static final int MAGIC = 0x5254504F;
+    public static final int VERSION = 1;
+
+    /** Macierze zapisane jako float32 zamiast float64. */
+    public static final int FLAG_FLOAT32 = 1;
+    /** Treść skompresowana algorytmem deflate. */
+    public static final int FLAG_DEFLATE = 2;
+
+    private static final int HEADER_BYTES = 10;
+    // ograniczenie rozmiaru treści po dekompresji (macierze 4000 x 4000 w float64)
+    private static final int MAX_BODY_BYTES = 2 * 8 * 4000 * 4000 + (1 << 20);
+
+    private OptimizerRequestFrame() {
+    }
+
+    public static byte[] encode(OptimizerRequest request, int flags) {
+        byte[] body = OptimizerRequestCodec.encode(request, (flags & FLAG_FLOAT32) != 0);
+        int bodyLength = body.length;
+        if ((flags & FLAG_DEFLATE) != 0) {
+            body = deflate(body);
+        }
+        return new BinaryWriter(HEADER_BYTES + body.length)
+                .writeInt(MAGIC)
+                .writeByte(VERSION)
+                .writeByte(flags)
+                .writeInt(bodyLength)
+                .writeBytes(body)
+                .toByteArray();
+    }
+
+    public static OptimizerRequest decode(byte[] frame) {
+        BinaryReader header = new BinaryReader(frame);
+        if (header.readInt() != MAGIC) {
+            throw new MalformedPayloadException("Not an optimizer request frame");
+        }
+        int version = header.readByte();
+        if (version != VERSION) {
+            throw new MalformedPayloadException("Unsupported frame version: " + version);
+        }
+        int flags = header.readByte();
+        int bodyLength = header.readInt();
+        if (bodyLength < 0 || bodyLength > MAX_BODY_BYTES) {
+            throw new MalformedPayloadException("Invalid body length: " + bodyLength);
+        }
+        byte[] body = header.readBytes(header.remaining());
+        if ((flags & FLAG_DEFLATE) != 0) {
+            body = inflate(body, bodyLength);
+        } else if (body.length != bodyLength) {
+            throw new MalformedPayloadException("Body length mismatch");
+        }
+        return OptimizerRequestCodec.read(new BinaryReader(body), (flags & FLAG_FLOAT32) != 0);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] chunk = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] body = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(body, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length || !inflater.finished()) {
+                throw new MalformedPayloadException("Body length mismatch after inflate");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new MalformedPayloadException("Invalid deflate stream: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,9 +1,30 @@
 package com.example.optimizer.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfiguration {
+
+    /**
+     * Ograniczona pula dla uruchamianych optymalizacji. Po zapełnieniu kolejki kolejne zlecenia
+     * są odrzucane (TaskRejectedException), a nie uruchamiane ponad liczbę wątków.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor optimizationExecutor(@Value("${optimizer.executor.core-size:2}") int coreSize,
+                                                       @Value("${optimizer.executor.max-size:4}") int maxSize,
+                                                       @Value("${optimizer.executor.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("optimization-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,12 +1,19 @@
 package com.example.optimizer.controller;
 
+import com.example.optimizer.codec.MalformedPayloadException;
+import com.example.optimizer.codec.OptimizerRequestFrame;
 import com.example.optimizer.dto.OptimizerRequest;
 import com.example.optimizer.dto.OptimizerResponse;
+import com.example.optimizer.dto.OptimizerStatsResponse;
+import com.example.optimizer.dto.OptimizerTelemetryResponse;
 import com.example.optimizer.service.OptimizerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/optimizer")
 @RequiredArgsConstructor
@@ -16,10 +23,39 @@ public class OptimizerController {
 
     @PostMapping
     public ResponseEntity optimize(@RequestBody OptimizerRequest request) {
-        optimizerService.optimize(request);
+        if (!optimizerService.optimize(request)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Wariant binarny (macierze jako tablice float32/float64, opcjonalnie skompresowane); JSON pozostaje domyślny.
+     */
+    @PostMapping(consumes = OptimizerRequestFrame.CONTENT_TYPE)
+    public ResponseEntity optimizeBinary(@RequestBody byte[] body) {
+        OptimizerRequest request;
+        try {
+            request = OptimizerRequestFrame.decode(body);
+        } catch (MalformedPayloadException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return optimize(request);
+    }
+
+    /**
+     * Stan wielu optymalizacji w jednym wywołaniu, do odpytywania przez zlecającego; nieznane id są pomijane.
+     */
+    @PostMapping("status")
+    ResponseEntity<List<OptimizerResponse>> getOptimizationStatuses(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(optimizerService.getOptimizationStatuses(ids));
+    }
+
+    @GetMapping("stats")
+    ResponseEntity<OptimizerStatsResponse> getStats() {
+        return ResponseEntity.ok(optimizerService.getStats());
+    }
+
     @GetMapping("{id}")
     ResponseEntity getOptimizationResult(@PathVariable Long id) {
         OptimizerResponse response = optimizerService.getOptimizationResult(id);
@@ -29,4 +65,21 @@ public class OptimizerController {
             return ResponseEntity.ok(response);
         }
     }
+
+    @GetMapping("{id}/telemetry")
+    ResponseEntity<OptimizerTelemetryResponse> getTelemetry(@PathVariable Long id) {
+        OptimizerTelemetryResponse telemetry = optimizerService.getTelemetry(id);
+        if (telemetry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(telemetry);
+    }
+
+    @DeleteMapping("{id}")
+    ResponseEntity cancelOptimization(@PathVariable Long id) {
+        if (!optimizerService.cancel(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.optimizer.dto;
 
 import com.example.optimizer.model.Driver;
+import com.example.optimizer.model.OptimizationSettings;
 import com.example.optimizer.model.Order;
 import com.example.optimizer.model.Vehicle;
 import lombok.AllArgsConstructor;
@@ -28,4 +29,21 @@ public class OptimizerRequest {
     private double[][] distanceMatrix;
 
     private double[][] durationMatrix;
+
+    // opcjonalne parametry przeszukiwania; brak oznacza wartości domyślne
+    private OptimizationSettings settings;
+
+    // poprzedni plan tej samej daty (orderIdsOrdered każdej trasy); optymalizator usuwa z niego zlecenia spoza
+    // żądania, wstawia nowe w najtańsze miejsca i od tak naprawionego planu zaczyna przeszukiwanie
+    private List<List<Long>> previousRoutes;
+
+    // adres, pod który optymalizator wysyła POST z OptimizerResponse po opublikowaniu wyniku i po zakończeniu;
+    // token trafia do nagłówka wywołania. Brak adresu oznacza, że zlecający tylko odpytuje o wynik
+    private String callbackUrl;
+
+    private String callbackToken;
+
+    // ziarno przeszukiwania; to samo ziarno i te same dane dają ten sam plan (bez limitu czasu, na jednym wątku
+    // lub bez wymiany elity). Brak oznacza ziarno losowe, zwracane w OptimizerResponse.seed
+    private Long seed;
 }
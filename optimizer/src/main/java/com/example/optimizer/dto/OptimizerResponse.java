@@ -1,7 +1,9 @@
 package com.example.optimizer.dto;
 
+import com.example.optimizer.model.OperatorStatistics;
 import com.example.optimizer.model.OptimizedRoute;
 import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.RunningOptimization;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +17,64 @@ import java.util.List;
 @AllArgsConstructor
 public class OptimizerResponse {
 
+    private Long planningId;
+
     private OptimizationStatus status;
 
     private List<OptimizedRoute> routes = null;
+
+    // łączny dystans zwróconych tras (w trakcie optymalizacji: najlepszy dotychczasowy)
+    private Double fitness;
+
+    // silnik i liczba iteracji na sekundę, po zakończeniu optymalizacji
+    private String engine;
+
+    private Double iterationsPerSecond;
+
+    private List<OperatorStatistics> operatorStatistics;
+
+    // heurystyka startowa, ocena rozwiązania początkowego i czas do pierwszego dopuszczalnego rozwiązania
+    private String construction;
+
+    private Double initialFitness;
+
+    private Long firstFeasibleMillis;
+
+    // wynik wydany z pamięci wyników dla identycznych danych wejściowych
+    private boolean servedFromCache;
+
+    // ziarno przeszukiwania, do powtórzenia optymalizacji
+    private Long seed;
+
+    /**
+     * Bieżący stan optymalizacji, zwracany przez {@code GET /api/optimizer/{id}} i wysyłany w powiadomieniach.
+     */
+    public static OptimizerResponse of(RunningOptimization optimization) {
+        return OptimizerResponse.builder()
+                .planningId(optimization.getId())
+                .status(optimization.getStatus())
+                .routes(optimization.getRoutes())
+                .fitness(optimization.getFitness())
+                .engine(optimization.getEngine())
+                .iterationsPerSecond(optimization.getIterationsPerSecond())
+                .operatorStatistics(optimization.getOperatorStatistics())
+                .construction(optimization.getConstruction())
+                .initialFitness(optimization.getInitialFitness())
+                .firstFeasibleMillis(optimization.getFirstFeasibleMillis())
+                .servedFromCache(optimization.isServedFromCache())
+                .seed(optimization.getSeed())
+                .build();
+    }
+
+    /**
+     * Skrócony stan dla {@code POST /api/optimizer/status}: status, trasy i ich dystans, bez statystyk przeszukiwania.
+     */
+    public static OptimizerResponse summaryOf(RunningOptimization optimization) {
+        return OptimizerResponse.builder()
+                .planningId(optimization.getId())
+                .status(optimization.getStatus())
+                .routes(optimization.getRoutes())
+                .fitness(optimization.getFitness())
+                .build();
+    }
 }
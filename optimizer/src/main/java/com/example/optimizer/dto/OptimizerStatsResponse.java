@@ -0,0 +1,51 @@
+package com.example.optimizer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizerStatsResponse {
+
+    // optymalizacje oczekujące w kolejce puli
+    private int queueDepth;
+
+    private int queueCapacity;
+
+    // optymalizacje aktualnie wykonywane
+    private int activeWorkers;
+
+    private int poolSize;
+
+    private int maxPoolSize;
+
+    // wątki przeszukiwania współdzielone przez wszystkie optymalizacje
+    private int searchPoolSize;
+
+    private long rejectedCount;
+
+    // optymalizacje przechowywane w repozytorium (w toku i zakończone)
+    private int storedOptimizations;
+
+    // szacowana zajętość pamięci przez przechowywane optymalizacje
+    private long storedBytes;
+
+    // wpisy usunięte po upływie TTL
+    private long expiredCount;
+
+    // wpisy usunięte z powodu limitu liczby wpisów lub bajtów
+    private long evictedCount;
+
+    // pamięć wyników według skrótu danych wejściowych: liczba wpisów, trafienia i chybienia
+    private int resultCacheSize;
+
+    private long resultCacheHits;
+
+    private long resultCacheMisses;
+
+    private double resultCacheHitRate;
+}
@@ -0,0 +1,82 @@
+package com.example.optimizer.dto;
+
+import com.example.optimizer.model.ConvergencePoint;
+import com.example.optimizer.model.OperatorStatistics;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.RunningOptimization;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizerTelemetryResponse {
+
+    private Long planningId;
+
+    private OptimizationStatus status;
+
+    private String engine;
+
+    private String construction;
+
+    private Integer orders;
+
+    // liczniki przeszukiwania, po zakończeniu optymalizacji
+    private Long elapsedMillis;
+
+    private Long iterations;
+
+    private Double iterationsPerSecond;
+
+    private Long evaluations;
+
+    private Double evaluationsPerSecond;
+
+    // udział ocen rozwiązań dopuszczalnych wśród wszystkich ocen
+    private Double feasibilityRate;
+
+    private Long tabuHits;
+
+    // ocena rozwiązania początkowego, najlepsza ocena i czas do pierwszego dopuszczalnego rozwiązania
+    private Double initialFitness;
+
+    private Double fitness;
+
+    private Long firstFeasibleMillis;
+
+    // najlepsza ocena w czasie, aktualizowana w trakcie optymalizacji
+    private List<ConvergencePoint> convergence;
+
+    private List<OperatorStatistics> operatorStatistics;
+
+    /**
+     * Telemetria optymalizacji, zwracana przez {@code GET /api/optimizer/{id}/telemetry}.
+     */
+    public static OptimizerTelemetryResponse of(RunningOptimization optimization) {
+        return OptimizerTelemetryResponse.builder()
+                .planningId(optimization.getId())
+                .status(optimization.getStatus())
+                .engine(optimization.getEngine())
+                .construction(optimization.getConstruction())
+                .orders(optimization.getOrders() != null ? optimization.getOrders().size() : null)
+                .elapsedMillis(optimization.getElapsedMillis())
+                .iterations(optimization.getIterations())
+                .iterationsPerSecond(optimization.getIterationsPerSecond())
+                .evaluations(optimization.getEvaluations())
+                .evaluationsPerSecond(optimization.getEvaluationsPerSecond())
+                .feasibilityRate(optimization.getFeasibilityRate())
+                .tabuHits(optimization.getTabuHits())
+                .initialFitness(optimization.getInitialFitness())
+                .fitness(optimization.getFitness())
+                .firstFeasibleMillis(optimization.getFirstFeasibleMillis())
+                .convergence(optimization.getConvergence() != null ? optimization.getConvergence().points() : List.of())
+                .operatorStatistics(optimization.getOperatorStatistics())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.optimizer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Poprawa najlepszego rozwiązania optymalizacji: kiedy nastąpiła i do jakiej oceny.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConvergencePoint {
+
+    // czas od startu optymalizacji
+    private long elapsedMillis;
+
+    // iteracje wszystkich trajektorii wykonane do tej chwili
+    private long iterations;
+
+    private double fitness;
+
+    // ocena rozwiązania dopuszczalnego (mniejsza niż Calculator.INFEASIBLE_FITNESS)
+    private boolean feasible;
+}
@@ -0,0 +1,66 @@
+package com.example.optimizer.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Przebieg zbieżności optymalizacji: kolejne poprawy najlepszego rozwiązania w czasie, zapisywane przez
+ * trajektorie na bieżąco. Po zebraniu {@value #MAX_POINTS} punktów co drugi jest usuwany, więc ślad obejmuje
+ * cały przebieg przy stałej pamięci, a jego rozdzielczość maleje z długością przeszukiwania.
+ */
+public final class ConvergenceTrace {
+
+    static final int MAX_POINTS = 1000;
+
+    private final long startNanos;
+    private final List<ConvergencePoint> points = new ArrayList<>();
+
+    /**
+     * @param startNanos {@link System#nanoTime()} startu optymalizacji
+     */
+    public ConvergenceTrace(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Zapisuje nową najlepszą ocenę; ocena nie lepsza od ostatniej zapisanej (zgłoszona przez inny wątek
+     * z opóźnieniem) jest pomijana.
+     */
+    public synchronized void record(double fitness, boolean feasible, long iterations) {
+        if (!points.isEmpty() && fitness >= points.get(points.size() - 1).getFitness()) {
+            return;
+        }
+        if (points.size() >= MAX_POINTS) {
+            thin();
+        }
+        points.add(ConvergencePoint.builder()
+                .elapsedMillis((System.nanoTime() - startNanos) / 1_000_000)
+                .iterations(iterations)
+                .fitness(fitness)
+                .feasible(feasible)
+                .build());
+    }
+
+    public synchronized List<ConvergencePoint> points() {
+        return new ArrayList<>(points);
+    }
+
+    public synchronized int size() {
+        return points.size();
+    }
+
+    /**
+     * Zostawia punkty o parzystych indeksach i ostatni, czyli najlepszą dotąd ocenę.
+     */
+    private void thin() {
+        ConvergencePoint last = points.get(points.size() - 1);
+        int kept = 0;
+        for (int i = 0; i < points.size(); i += 2) {
+            points.set(kept++, points.get(i));
+        }
+        points.subList(kept, points.size()).clear();
+        if (points.get(kept - 1) != last) {
+            points.add(last);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.optimizer.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Niezmienny indeks floty budowany raz na optymalizację: kierowcy posortowani według długości zmiany,
+ * dla każdego typu pojazdu zbiór bitowy kierowców z odpowiednim prawem jazdy, pojazdy pogrupowane według typu
+ * oraz minimalny typ pojazdu każdego zlecenia. Przydział kierowcy do trasy sprowadza się do operacji na bitach.
+ */
+public final class FleetIndex {
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private final long[] driverIds;
+    private final int[] shiftSeconds;
+    // bit d ustawiony, jeśli kierowca d (w kolejności zmian) ma prawo jazdy na dany typ
+    private final long[][] driversByVehicleType;
+    private final long[][] vehicleIdsByType;
+    private final int[] orderMinVehicleType;
+
+    private FleetIndex(long[] driverIds, int[] shiftSeconds, long[][] driversByVehicleType,
+                       long[][] vehicleIdsByType, int[] orderMinVehicleType) {
+        this.driverIds = driverIds;
+        this.shiftSeconds = shiftSeconds;
+        this.driversByVehicleType = driversByVehicleType;
+        this.vehicleIdsByType = vehicleIdsByType;
+        this.orderMinVehicleType = orderMinVehicleType;
+    }
+
+    public static FleetIndex of(Collection<Driver> drivers, Collection<Vehicle> vehicles, List<Order> orders) {
+        List<Driver> sortedDrivers = new ArrayList<>(drivers);
+        // id rozstrzyga remisy, aby przydział nie zależał od kolejności iteracji zbioru
+        sortedDrivers.sort(Comparator.comparingInt((Driver driver) -> shiftSeconds(driver)).thenComparing(Driver::getId));
+        int driverCount = sortedDrivers.size();
+        long[] driverIds = new long[driverCount];
+        int[] shiftSeconds = new int[driverCount];
+        long[][] driversByVehicleType = new long[VEHICLE_TYPES.length][(driverCount + 63) >>> 6];
+        for (int d = 0; d < driverCount; d++) {
+            Driver driver = sortedDrivers.get(d);
+            driverIds[d] = driver.getId();
+            shiftSeconds[d] = shiftSeconds(driver);
+            if (driver.getLicences() == null) {
+                continue;
+            }
+            for (VehicleType type : driver.getLicences()) {
+                driversByVehicleType[type.ordinal()][d >>> 6] |= 1L << d;
+            }
+        }
+
+        List<Vehicle> sortedVehicles = new ArrayList<>(vehicles);
+        sortedVehicles.sort(Comparator.comparing(Vehicle::getId));
+        int[] counts = new int[VEHICLE_TYPES.length];
+        for (Vehicle vehicle : sortedVehicles) {
+            counts[vehicle.getVehicleType().ordinal()]++;
+        }
+        long[][] vehicleIdsByType = new long[VEHICLE_TYPES.length][];
+        for (int vt = 0; vt < VEHICLE_TYPES.length; vt++) {
+            vehicleIdsByType[vt] = new long[counts[vt]];
+        }
+        Arrays.fill(counts, 0);
+        for (Vehicle vehicle : sortedVehicles) {
+            int vt = vehicle.getVehicleType().ordinal();
+            vehicleIdsByType[vt][counts[vt]++] = vehicle.getId();
+        }
+
+        int[] orderMinVehicleType = new int[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            int minIndex = 0;
+            while (minIndex < VEHICLE_TYPES.length && orders.get(i).getCargoWeight() > VEHICLE_TYPES[minIndex].getMaxWeight()) {
+                minIndex++;
+            }
+            orderMinVehicleType[i] = minIndex;
+        }
+        return new FleetIndex(driverIds, shiftSeconds, driversByVehicleType, vehicleIdsByType, orderMinVehicleType);
+    }
+
+    public static FleetIndex of(RunningOptimization optimization) {
+        return of(optimization.getDrivers(), optimization.getVehicles(), optimization.getOrders());
+    }
+
+    private static int shiftSeconds(Driver driver) {
+        return driver.getWorkEnd().toSecondOfDay() - driver.getWorkStart().toSecondOfDay();
+    }
+
+    public int driverCount() {
+        return driverIds.length;
+    }
+
+    public int shiftSeconds(int driver) {
+        return shiftSeconds[driver];
+    }
+
+    /**
+     * Najdłuższa zmiana kierowcy z prawem jazdy na typ pojazdu co najmniej {@code minVehicleType},
+     * dla którego istnieje pojazd; 0, jeśli takiego kierowcy nie ma.
+     */
+    public int maxShiftSeconds(int minVehicleType) {
+        int longest = 0;
+        for (int vt = minVehicleType; vt < VEHICLE_TYPES.length; vt++) {
+            if (vehicleIdsByType[vt].length == 0) {
+                continue;
+            }
+            long[] eligible = driversByVehicleType[vt];
+            for (int word = eligible.length - 1; word >= 0; word--) {
+                if (eligible[word] != 0) {
+                    // kierowcy posortowani rosnąco według zmiany, więc ostatni bit to najdłuższa zmiana
+                    int driver = (word << 6) + 63 - Long.numberOfLeadingZeros(eligible[word]);
+                    longest = Math.max(longest, shiftSeconds[driver]);
+                    break;
+                }
+            }
+        }
+        return longest;
+    }
+
+    public long driverId(int driver) {
+        return driverIds[driver];
+    }
+
+    /**
+     * Nowy, pusty zbiór bitowy kierowców dla {@link #findDriver}.
+     */
+    public long[] newDriverSet() {
+        return new long[(driverIds.length + 63) >>> 6];
+    }
+
+    /**
+     * Indeks pierwszego kierowcy (w kolejności zmian), którego zmiana trwa co najmniej podaną liczbę sekund.
+     */
+    public int firstDriverWithShift(double seconds) {
+        int low = 0;
+        int high = shiftSeconds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (shiftSeconds[mid] >= seconds) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Pierwszy kierowca od indeksu {@code from} z prawem jazdy na dany typ, nieobecny w {@code usedDrivers}.
+     *
+     * @return indeks kierowcy lub -1
+     */
+    public int findDriver(int vehicleType, int from, long[] usedDrivers) {
+        long[] eligible = driversByVehicleType[vehicleType];
+        int word = from >>> 6;
+        if (word >= eligible.length) {
+            return -1;
+        }
+        long bits = eligible[word] & ~usedDrivers[word] & (-1L << (from & 63));
+        while (bits == 0) {
+            if (++word == eligible.length) {
+                return -1;
+            }
+            bits = eligible[word] & ~usedDrivers[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    public int vehicleCount(int vehicleType) {
+        return vehicleIdsByType[vehicleType].length;
+    }
+
+    public long vehicleId(int vehicleType, int index) {
+        return vehicleIdsByType[vehicleType][index];
+    }
+
+    /**
+     * Najmniejszy typ pojazdu (indeks {@link VehicleType}), który przewiezie zlecenie; {@code VehicleType.values().length},
+     * jeśli zlecenie jest cięższe niż ładowność każdego typu.
+     */
+    public int orderMinVehicleType(int order) {
+        return orderMinVehicleType[order];
+    }
+}
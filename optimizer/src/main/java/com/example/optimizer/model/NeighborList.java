@@ -0,0 +1,119 @@
+package com.example.optimizer.model;
+
+/**
+ * Listy k najbliższych sąsiadów zleceń w jednej płaskiej tablicy: sąsiedzi zlecenia i zajmują
+ * pozycje {@code i*k .. i*k+k-1}, od najbliższego. Odległość liczona jest od miejsca dostawy zlecenia i
+ * do miejsca odbioru zlecenia j, czyli sąsiad to dobry następnik na trasie.
+ * Budowana raz przy starcie optymalizacji, w czasie O(n² log k).
+ */
+public final class NeighborList {
+
+    private final int orderCount;
+    private final int k;
+    private final int[] neighbors;
+
+    private NeighborList(int orderCount, int k, int[] neighbors) {
+        this.orderCount = orderCount;
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * @param k liczba sąsiadów na zlecenie, ograniczana do liczby pozostałych zleceń
+     */
+    public static NeighborList of(TravelMatrix matrix, int orderCount, int k) {
+        k = Math.max(0, Math.min(k, orderCount - 1));
+        int[] neighbors = new int[orderCount * k];
+        // kopiec maksymalny k najbliższych dotąd kandydatów
+        int[] heap = new int[k];
+        double[] heapDistance = new double[k];
+        for (int i = 0; i < orderCount; i++) {
+            int size = 0;
+            for (int j = 0; j < orderCount; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double distance = matrix.distance(i + 1, j + 1);
+                if (size < k) {
+                    heap[size] = j;
+                    heapDistance[size] = distance;
+                    siftUp(heap, heapDistance, size++);
+                } else if (k > 0 && distance < heapDistance[0]) {
+                    heap[0] = j;
+                    heapDistance[0] = distance;
+                    siftDown(heap, heapDistance, size);
+                }
+            }
+            // zdejmowanie z kopca daje sąsiadów od najdalszego
+            for (int rank = size - 1; rank >= 0; rank--) {
+                neighbors[i * k + rank] = heap[0];
+                heap[0] = heap[rank];
+                heapDistance[0] = heapDistance[rank];
+                siftDown(heap, heapDistance, rank);
+            }
+        }
+        return new NeighborList(orderCount, k, neighbors);
+    }
+
+    private static void siftUp(int[] heap, double[] distance, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (distance[parent] >= distance[index]) {
+                return;
+            }
+            swap(heap, distance, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] distance, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && distance[left] > distance[largest]) {
+                largest = left;
+            }
+            if (right < size && distance[right] > distance[largest]) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, distance, largest, index);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, double[] distance, int a, int b) {
+        int order = heap[a];
+        heap[a] = heap[b];
+        heap[b] = order;
+        double d = distance[a];
+        distance[a] = distance[b];
+        distance[b] = d;
+    }
+
+    public int orderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Liczba sąsiadów każdego zlecenia.
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Sąsiad zlecenia o podanej randze (0 to najbliższy).
+     */
+    public int neighbor(int order, int rank) {
+        return neighbors[order * k + rank];
+    }
+
+    public long bytes() {
+        return 16 + 4L * neighbors.length;
+    }
+}
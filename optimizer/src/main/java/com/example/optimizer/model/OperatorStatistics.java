@@ -0,0 +1,44 @@
+package com.example.optimizer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Skuteczność jednego operatora przeszukiwania, zsumowana po wszystkich trajektoriach optymalizacji.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperatorStatistics {
+
+    private String operator;
+
+    // wygenerowane i ocenione ruchy
+    private long proposed;
+
+    // ruchy przyjęte przez silnik jako nowe bieżące rozwiązanie
+    private long accepted;
+
+    // przyjęte ruchy, które poprawiły bieżące rozwiązanie
+    private long improved;
+
+    // accepted / proposed
+    private double acceptanceRate;
+
+    // improved / proposed, czyli poprawy na ocenę ruchu
+    private double improvementRate;
+
+    public static OperatorStatistics of(String operator, long proposed, long accepted, long improved) {
+        return OperatorStatistics.builder()
+                .operator(operator)
+                .proposed(proposed)
+                .accepted(accepted)
+                .improved(improved)
+                .acceptanceRate(proposed > 0 ? (double) accepted / proposed : 0.0)
+                .improvementRate(proposed > 0 ? (double) improved / proposed : 0.0)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.optimizer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parametry przebiegu optymalizacji przekazywane w żądaniu.
+ * Puste pola oznaczają wartości domyślne, uzupełniane przez {@link #withDefaults(OptimizationSettings)}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimizationSettings {
+
+    public static final String DEFAULT_ENGINE = "tabu";
+    public static final String DEFAULT_CONSTRUCTION = "sweep";
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_STARTS = 1;
+    public static final int DEFAULT_ELITE_SHARE_INTERVAL = 0;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 0;
+    public static final long DEFAULT_PUBLISH_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_TABU_TENURE = 50;
+    public static final int DEFAULT_ORDER_TABU_TENURE = 0;
+    public static final int DEFAULT_NEIGHBOR_COUNT = 20;
+    public static final int DEFAULT_CLUSTER_SIZE = 0;
+
+    // metaheurystyka: tabu, annealing (symulowane wyżarzanie) lub alns
+    private String engine;
+
+    // heurystyka budowy rozwiązań początkowych: savings (Clarke-Wright), sweep, regret lub random
+    private String construction;
+
+    // liczba równoległych wątków przeszukiwania
+    private Integer threads;
+
+    // liczba niezależnych startów (trajektorii) przeszukiwania
+    private Integer starts;
+
+    // co ile iteracji trajektoria porównuje się z najlepszym rozwiązaniem pozostałych; 0 wyłącza wymianę
+    private Integer eliteShareInterval;
+
+    // limit czasu przeszukiwania; 0 oznacza zakończenie po limicie iteracji
+    private Long timeBudgetMillis;
+
+    // co ile publikowane jest najlepsze dotychczasowe rozwiązanie
+    private Long publishIntervalMillis;
+
+    // liczba ostatnich ruchów (zamian pozycji) zabronionych do powtórzenia
+    private Integer tabuTenure;
+
+    // liczba ostatnich przeniesień, po których zlecenie nie może wrócić do opuszczonej trasy; 0 wyłącza
+    private Integer orderTabuTenure;
+
+    // liczba najbliższych sąsiadów zlecenia, z którymi łączą je ruchy granularne; co najmniej liczba zleceń
+    // oznacza ruchy bez ograniczenia odległości
+    private Integer neighborCount;
+
+    // dekompozycja dużych dni: zlecenia dzielone są na sektory według kąta wokół bazy, po około tyle zleceń,
+    // optymalizowane równolegle, a potem poprawiane razem; klasy wagowe zleceń decydują tylko o podziale floty
+    // między sektory. 0 wyłącza dekompozycję
+    private Integer clusterSize;
+
+    public static OptimizationSettings withDefaults(OptimizationSettings requested) {
+        OptimizationSettings settings = requested != null ? requested : new OptimizationSettings();
+        return OptimizationSettings.builder()
+                .engine(settings.getEngine() != null && !settings.getEngine().isBlank() ? settings.getEngine() : DEFAULT_ENGINE)
+                .construction(settings.getConstruction() != null && !settings.getConstruction().isBlank()
+                        ? settings.getConstruction() : DEFAULT_CONSTRUCTION)
+                .threads(positiveOrDefault(settings.getThreads(), DEFAULT_THREADS))
+                .starts(positiveOrDefault(settings.getStarts(), DEFAULT_STARTS))
+                .eliteShareInterval(settings.getEliteShareInterval() != null && settings.getEliteShareInterval() > 0
+                        ? settings.getEliteShareInterval() : DEFAULT_ELITE_SHARE_INTERVAL)
+                .timeBudgetMillis(positiveOrDefault(settings.getTimeBudgetMillis(), DEFAULT_TIME_BUDGET_MILLIS))
+                .publishIntervalMillis(positiveOrDefault(settings.getPublishIntervalMillis(), DEFAULT_PUBLISH_INTERVAL_MILLIS))
+                .tabuTenure(positiveOrDefault(settings.getTabuTenure(), DEFAULT_TABU_TENURE))
+                .orderTabuTenure(positiveOrDefault(settings.getOrderTabuTenure(), DEFAULT_ORDER_TABU_TENURE))
+                .neighborCount(positiveOrDefault(settings.getNeighborCount(), DEFAULT_NEIGHBOR_COUNT))
+                .clusterSize(positiveOrDefault(settings.getClusterSize(), DEFAULT_CLUSTER_SIZE))
+                .build();
+    }
+
+    private static int positiveOrDefault(Integer value, int defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+
+    private static long positiveOrDefault(Long value, long defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+}
@@ -3,5 +3,6 @@ package com.example.optimizer.model;
 public enum OptimizationStatus {
     IN_PROGRESS,
     COMPLETED,
-    FAILED
+    FAILED,
+    CANCELLED
 }
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 
@@ -16,7 +17,7 @@ public class RunningOptimization {
 
     private Long id;
 
-    private OptimizationStatus status;
+    private volatile OptimizationStatus status;
 
     private Set<Driver> drivers;
 
@@ -25,10 +26,81 @@ public class RunningOptimization {
     // posortowana lista, aby znać kolejność dystansu w macierzy odległości
     private List<Order> orders;
 
-    private double[][] distanceMatrix;
+    // odległości i czasy przejazdu; indeks 0 to baza, zlecenie i ma indeks i+1
+    private TravelMatrix travelMatrix;
 
-    private double[][] durationMatrix;
+    // kierowcy, pojazdy i typy zleceń przygotowane pod przydział tras; budowany raz przy zleceniu
+    private FleetIndex fleetIndex;
 
-    private List<OptimizedRoute> routes = null;
+    // najbliżsi sąsiedzi zleceń do granularnego przeszukiwania; budowane przy starcie optymalizacji
+    private NeighborList neighborList;
+
+    private OptimizationSettings settings;
+
+    // skrót danych wejściowych (OptimizerInputFingerprint); null, gdy pamięć wyników jest wyłączona
+    private String fingerprint;
+
+    // wynik wydany z pamięci wyników bez uruchamiania przeszukiwania
+    private boolean servedFromCache;
+
+    // powiadomienia o postępie i zakończeniu (OptimizerRequest.callbackUrl); null = bez powiadomień
+    private String callbackUrl;
+
+    private String callbackToken;
+
+    // poprzedni plan (identyfikatory zleceń w kolejności, osobno dla każdej trasy), naprawiany jako rozwiązanie
+    // początkowe; null = budowa od zera
+    private List<List<Long>> previousRoutes;
+
+    // ziarno generatorów losowych przeszukiwania; null = losowane przy starcie (i wtedy zapisywane tutaj)
+    private Long seed;
+
+    // genom, od którego zaczyna pierwsza trajektoria (np. punkt kontrolny wznowionej optymalizacji); null = losowy
+    private int[] initialSequence;
+
+    // najlepsze dotychczas znalezione trasy; w trakcie optymalizacji aktualizowane okresowo
+    private volatile List<OptimizedRoute> routes = null;
+
+    private volatile Double fitness;
+
+    // ustawiane przez DELETE /api/optimizer/{id}; wątki przeszukiwania kończą trajektorie przy najbliższej iteracji
+    private volatile boolean cancelled;
+
+    // silnik, który wykonał optymalizację, i jego przepustowość (iteracje na sekundę), znane po zakończeniu
+    private String engine;
+
+    private Long iterations;
+
+    private Double iterationsPerSecond;
+
+    // heurystyka rozwiązań początkowych, ocena rozwiązania pierwszego startu
+    // i czas od rozpoczęcia do pierwszego dopuszczalnego rozwiązania; ocena rozwiązania niedopuszczalnego
+    // jest nie mniejsza niż Calculator.INFEASIBLE_FITNESS
+    private String construction;
+
+    private Double initialFitness;
+
+    private Long firstFeasibleMillis;
+
+    // skuteczność operatorów przeszukiwania, do strojenia silników
+    private List<OperatorStatistics> operatorStatistics;
+
+    // telemetria przebiegu, znana po zakończeniu: czas przeszukiwania, oceny rozwiązań (pełne i przyrostowe)
+    // i ich przepustowość, udział ocen dopuszczalnych oraz ruchy pominięte przez listę tabu
+    private Long elapsedMillis;
+
+    private Long evaluations;
+
+    private Double evaluationsPerSecond;
+
+    private Double feasibilityRate;
+
+    private Long tabuHits;
+
+    // poprawy najlepszego rozwiązania w czasie, zapisywane w trakcie optymalizacji
+    private ConvergenceTrace convergence;
+
+    // moment zakończenia (COMPLETED/FAILED/CANCELLED), od którego liczony jest czas wygaśnięcia wpisu
+    private volatile Instant finishedAt;
 
 }
@@ -0,0 +1,97 @@
+package com.example.optimizer.model;
+
+/**
+ * Macierz odległości i czasów przejazdu w jednej płaskiej tablicy wierszami, z parami (dystans, czas)
+ * obok siebie, więc oba odczyty dla tego samego odcinka trafiają w tę samą linię pamięci podręcznej.
+ * W trybie float32 zajmuje połowę pamięci wersji float64.
+ */
+public final class TravelMatrix {
+
+    private final int size;
+    // dokładnie jedna z tablic jest używana, zależnie od precyzji
+    private final double[] doubles;
+    private final float[] floats;
+
+    private TravelMatrix(int size, double[] doubles, float[] floats) {
+        this.size = size;
+        this.doubles = doubles;
+        this.floats = floats;
+    }
+
+    /**
+     * Buduje macierz z kwadratowych macierzy odległości i czasów o tym samym rozmiarze.
+     */
+    public static TravelMatrix of(double[][] distanceMatrix, double[][] durationMatrix, boolean float32) {
+        int size = distanceMatrix.length;
+        if (durationMatrix.length != size) {
+            throw new IllegalArgumentException("Distance and duration matrices differ in size");
+        }
+        double[] doubles = float32 ? null : new double[2 * size * size];
+        float[] floats = float32 ? new float[2 * size * size] : null;
+        for (int i = 0; i < size; i++) {
+            if (distanceMatrix[i].length != size || durationMatrix[i].length != size) {
+                throw new IllegalArgumentException("Travel matrices must be square");
+            }
+            int k = 2 * i * size;
+            for (int j = 0; j < size; j++, k += 2) {
+                if (float32) {
+                    floats[k] = (float) distanceMatrix[i][j];
+                    floats[k + 1] = (float) durationMatrix[i][j];
+                } else {
+                    doubles[k] = distanceMatrix[i][j];
+                    doubles[k + 1] = durationMatrix[i][j];
+                }
+            }
+        }
+        return new TravelMatrix(size, doubles, floats);
+    }
+
+    /**
+     * Macierz ograniczona do podanych lokalizacji, w tej samej precyzji; lokalizacja {@code locations[i]}
+     * ma w niej indeks i.
+     */
+    public TravelMatrix subMatrix(int[] locations) {
+        int subSize = locations.length;
+        double[] subDoubles = floats == null ? new double[2 * subSize * subSize] : null;
+        float[] subFloats = floats != null ? new float[2 * subSize * subSize] : null;
+        for (int i = 0; i < subSize; i++) {
+            for (int j = 0; j < subSize; j++) {
+                int k = 2 * (locations[i] * size + locations[j]);
+                int subK = 2 * (i * subSize + j);
+                if (floats != null) {
+                    subFloats[subK] = floats[k];
+                    subFloats[subK + 1] = floats[k + 1];
+                } else {
+                    subDoubles[subK] = doubles[k];
+                    subDoubles[subK + 1] = doubles[k + 1];
+                }
+            }
+        }
+        return new TravelMatrix(subSize, subDoubles, subFloats);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFloat32() {
+        return floats != null;
+    }
+
+    public double distance(int from, int to) {
+        int k = 2 * (from * size + to);
+        return floats != null ? floats[k] : doubles[k];
+    }
+
+    public double duration(int from, int to) {
+        int k = 2 * (from * size + to) + 1;
+        return floats != null ? floats[k] : doubles[k];
+    }
+
+    /**
+     * Rozmiar danych macierzy na stercie.
+     */
+    public long bytes() {
+        return 16 + (floats != null ? 4L * floats.length : 8L * doubles.length);
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.optimizer.repository;
+
+import com.example.optimizer.codec.BinaryReader;
+import com.example.optimizer.codec.BinaryWriter;
+import com.example.optimizer.codec.MalformedPayloadException;
+import com.example.optimizer.codec.OptimizerRequestCodec;
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.OptimizedRoute;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Dziennik zadań w plikach: jeden plik {@code <id>.journal} na zadanie, do którego dopisywane są rekordy
+ * wejścia, punktów kontrolnych i wyniku. Rekord ma postać [typ][długość][dane][crc32]; uszkodzony koniec pliku
+ * (np. po awarii w trakcie zapisu) jest pomijany przy odczycie.
+ * <p>
+ * Zapisy są synchronizowane osobno dla każdego pliku, więc duże wejście jednego zadania nie wstrzymuje
+ * pozostałych. Punkty kontrolne zapisuje jeden wątek w tle: wątki przeszukiwania tylko je kodują, a przy
+ * zaległościach starsze punkty kontrolne są pomijane na rzecz nowszych.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "optimizer.job-store.type", havingValue = "file", matchIfMissing = true)
+public class FileOptimizationJobStore implements OptimizationJobStore {
+
+    private static final String EXTENSION = ".journal";
+
+    private static final int RECORD_INPUT = 1;
+    private static final int RECORD_CHECKPOINT = 2;
+    private static final int RECORD_RESULT = 3;
+
+    private static final OptimizationStatus[] STATUSES = OptimizationStatus.values();
+
+    private final Path directory;
+    private final Duration retention;
+
+    // zakończone zadania i moment zapisu wyniku, na potrzeby czyszczenia dziennika
+    private final Map<Long, Instant> finishedJobs = new ConcurrentHashMap<>();
+
+    // blokady plików dziennika; nowa blokada po usunięciu dziennika unieważnia zaległe punkty kontrolne
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor checkpointWriter;
+
+    public FileOptimizationJobStore(@Value("${optimizer.job-store.directory:optimizer-jobs}") String directory,
+                                    @Value("${optimizer.job-store.retention:PT24H}") Duration retention) throws IOException {
+        this.directory = Paths.get(directory);
+        this.retention = retention;
+        Files.createDirectories(this.directory);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "journal-writer");
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.checkpointWriter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), threadFactory, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    @Override
+    public void saveInput(OptimizerRequest request) {
+        // nowe wejście zastępuje wcześniejszy dziennik zadania o tym samym id
+        delete(request.getPlanningId());
+        append(request.getPlanningId(), RECORD_INPUT, OptimizerRequestCodec.encode(request), true);
+    }
+
+    @Override
+    public void saveCheckpoint(Long id, int[] sequence, double fitness) {
+        BinaryWriter writer = new BinaryWriter(12 + 4 * sequence.length);
+        writer.writeDouble(fitness);
+        writer.writeInt(sequence.length);
+        for (int gene : sequence) {
+            writer.writeInt(gene);
+        }
+        byte[] payload = writer.toByteArray();
+        Object lock = lock(id);
+        checkpointWriter.execute(() -> {
+            synchronized (lock) {
+                // zadanie zakończone albo zastąpione nowym wejściem, zanim punkt kontrolny doczekał na zapis
+                if (locks.get(id) != lock || finishedJobs.containsKey(id)) {
+                    return;
+                }
+                write(id, RECORD_CHECKPOINT, payload, false);
+            }
+        });
+    }
+
+    @Override
+    public void saveResult(Long id, OptimizationStatus status, List<OptimizedRoute> routes, Double fitness) {
+        BinaryWriter writer = new BinaryWriter(256);
+        writer.writeByte(status.ordinal());
+        writer.writeDouble(fitness != null ? fitness : Double.NaN);
+        writer.writeInt(routes != null ? routes.size() : -1);
+        if (routes != null) {
+            for (OptimizedRoute route : routes) {
+                writer.writeLong(route.getDriverId() != null ? route.getDriverId() : -1);
+                writer.writeLong(route.getVehicleId() != null ? route.getVehicleId() : -1);
+                writer.writeDouble(route.getTotalDistance() != null ? route.getTotalDistance() : Double.NaN);
+                writer.writeInt(route.getEstimatedTimeMinutes() != null ? route.getEstimatedTimeMinutes() : -1);
+                List<Long> orderIds = route.getOrderIdsOrdered() != null ? route.getOrderIdsOrdered() : List.of();
+                writer.writeInt(orderIds.size());
+                for (Long orderId : orderIds) {
+                    writer.writeLong(orderId);
+                }
+            }
+        }
+        synchronized (lock(id)) {
+            write(id, RECORD_RESULT, writer.toByteArray(), true);
+            finishedJobs.put(id, Instant.now());
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        Object lock = lock(id);
+        synchronized (lock) {
+            finishedJobs.remove(id);
+            try {
+                Files.deleteIfExists(journal(id));
+            } catch (IOException e) {
+                log.error("Could not delete journal of optimization {}", id, e);
+            }
+            locks.remove(id, lock);
+        }
+    }
+
+    @Override
+    public synchronized List<PersistedJob> loadAll() {
+        List<PersistedJob> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                PersistedJob job = readJournal(file);
+                if (job == null) {
+                    log.warn("Skipping journal without input record: {}", file);
+                    continue;
+                }
+                if (job.isFinished()) {
+                    finishedJobs.put(job.request().getPlanningId(), Files.getLastModifiedTime(file).toInstant());
+                }
+                jobs.add(job);
+            }
+        } catch (IOException e) {
+            log.error("Could not read optimization journals from {}", directory, e);
+        }
+        return jobs;
+    }
+
+    /**
+     * Usuwa dzienniki zadań zakończonych dawniej niż okres przechowywania.
+     */
+    @Scheduled(fixedDelayString = "${optimizer.repository.sweep-interval:PT1M}")
+    public void purgeFinished() {
+        Instant threshold = Instant.now().minus(retention);
+        finishedJobs.forEach((id, finishedAt) -> {
+            if (finishedAt.isBefore(threshold)) {
+                delete(id);
+            }
+        });
+    }
+
+    /**
+     * Zapisuje zaległe punkty kontrolne przed zamknięciem aplikacji.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        checkpointWriter.shutdown();
+        checkpointWriter.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void append(Long id, int type, byte[] payload, boolean sync) {
+        synchronized (lock(id)) {
+            write(id, type, payload, sync);
+        }
+    }
+
+    private Object lock(Long id) {
+        return locks.computeIfAbsent(id, key -> new Object());
+    }
+
+    private void write(Long id, int type, byte[] payload, boolean sync) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        BinaryWriter frame = new BinaryWriter(payload.length + 13);
+        frame.writeByte(type);
+        frame.writeInt(payload.length);
+        frame.writeBytes(payload);
+        frame.writeInt((int) crc.getValue());
+        try (FileOutputStream out = new FileOutputStream(journal(id).toFile(), true)) {
+            out.write(frame.toByteArray());
+            if (sync) {
+                out.getFD().sync();
+            }
+        } catch (IOException e) {
+            log.error("Could not append to journal of optimization {}", id, e);
+        }
+    }
+
+    private PersistedJob readJournal(Path file) throws IOException {
+        BinaryReader reader = new BinaryReader(Files.readAllBytes(file));
+        OptimizerRequest request = null;
+        int[] checkpointSequence = null;
+        Double checkpointFitness = null;
+        OptimizationStatus resultStatus = null;
+        List<OptimizedRoute> resultRoutes = null;
+        Double resultFitness = null;
+        try {
+            while (reader.remaining() > 0) {
+                int type = reader.readByte();
+                int length = reader.readCount(1);
+                byte[] payload = reader.readBytes(length);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (reader.readInt() != (int) crc.getValue()) {
+                    log.warn("Corrupted record in {}, ignoring the rest of the journal", file);
+                    break;
+                }
+                BinaryReader record = new BinaryReader(payload);
+                switch (type) {
+                    case RECORD_INPUT -> request = OptimizerRequestCodec.read(record);
+                    case RECORD_CHECKPOINT -> {
+                        checkpointFitness = record.readDouble();
+                        checkpointSequence = new int[record.readCount(4)];
+                        for (int i = 0; i < checkpointSequence.length; i++) {
+                            checkpointSequence[i] = record.readInt();
+                        }
+                    }
+                    case RECORD_RESULT -> {
+                        resultStatus = STATUSES[record.readByte()];
+                        resultFitness = nullIfNaN(record.readDouble());
+                        resultRoutes = readRoutes(record);
+                    }
+                    default -> log.warn("Unknown record type {} in {}", type, file);
+                }
+            }
+        } catch (MalformedPayloadException e) {
+            log.warn("Truncated journal {}, using records read so far", file);
+        }
+        if (request == null) {
+            return null;
+        }
+        return new PersistedJob(request, checkpointSequence, checkpointFitness, resultStatus, resultRoutes, resultFitness);
+    }
+
+    private static List<OptimizedRoute> readRoutes(BinaryReader record) {
+        int routeCount = record.readInt();
+        if (routeCount < 0) {
+            return null;
+        }
+        List<OptimizedRoute> routes = new ArrayList<>(routeCount);
+        for (int r = 0; r < routeCount; r++) {
+            long driverId = record.readLong();
+            long vehicleId = record.readLong();
+            Double totalDistance = nullIfNaN(record.readDouble());
+            int estimatedTime = record.readInt();
+            int orderCount = record.readCount(8);
+            List<Long> orderIds = new ArrayList<>(orderCount);
+            for (int i = 0; i < orderCount; i++) {
+                orderIds.add(record.readLong());
+            }
+            routes.add(OptimizedRoute.builder()
+                    .driverId(driverId >= 0 ? driverId : null)
+                    .vehicleId(vehicleId >= 0 ? vehicleId : null)
+                    .totalDistance(totalDistance)
+                    .estimatedTimeMinutes(estimatedTime >= 0 ? estimatedTime : null)
+                    .orderIdsOrdered(orderIds)
+                    .build());
+        }
+        return routes;
+    }
+
+    private static Double nullIfNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private Path journal(Long id) {
+        return directory.resolve(id + EXTENSION);
+    }
+}
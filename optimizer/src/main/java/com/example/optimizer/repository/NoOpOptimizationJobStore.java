@@ -0,0 +1,38 @@
+package com.example.optimizer.repository;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.OptimizedRoute;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Wyłączony zapis zadań ({@code optimizer.job-store.type=none}); zadania giną przy restarcie.
+ */
+@Component
+@ConditionalOnProperty(name = "optimizer.job-store.type", havingValue = "none")
+public class NoOpOptimizationJobStore implements OptimizationJobStore {
+
+    @Override
+    public void saveInput(OptimizerRequest request) {
+    }
+
+    @Override
+    public void saveCheckpoint(Long id, int[] sequence, double fitness) {
+    }
+
+    @Override
+    public void saveResult(Long id, OptimizationStatus status, List<OptimizedRoute> routes, Double fitness) {
+    }
+
+    @Override
+    public void delete(Long id) {
+    }
+
+    @Override
+    public List<PersistedJob> loadAll() {
+        return List.of();
+    }
+}
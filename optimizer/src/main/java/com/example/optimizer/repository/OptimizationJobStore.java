@@ -0,0 +1,43 @@
+package com.example.optimizer.repository;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.OptimizedRoute;
+
+import java.util.List;
+
+/**
+ * Trwały zapis zadań optymalizacji, pozwalający odtworzyć je po restarcie procesu.
+ * Implementacje nie zgłaszają błędów zapisu do wywołującego; utrata zapisu nie może przerwać optymalizacji.
+ */
+public interface OptimizationJobStore {
+
+    void saveInput(OptimizerRequest request);
+
+    /**
+     * Zapisuje najlepsze dotychczasowe rozwiązanie (genom {@code Solution}) trwającej optymalizacji.
+     * Wywoływane z wątków przeszukiwania, więc nie powinno czekać na zapis na dysk.
+     */
+    void saveCheckpoint(Long id, int[] sequence, double fitness);
+
+    void saveResult(Long id, OptimizationStatus status, List<OptimizedRoute> routes, Double fitness);
+
+    void delete(Long id);
+
+    /**
+     * Wszystkie zapisane zadania, zarówno zakończone, jak i przerwane.
+     */
+    List<PersistedJob> loadAll();
+
+    record PersistedJob(OptimizerRequest request,
+                        int[] checkpointSequence,
+                        Double checkpointFitness,
+                        OptimizationStatus resultStatus,
+                        List<OptimizedRoute> resultRoutes,
+                        Double resultFitness) {
+
+        public boolean isFinished() {
+            return resultStatus != null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.optimizer.repository;
+
+import com.example.optimizer.model.OptimizedRoute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wyniki zakończonych optymalizacji według skrótu danych wejściowych
+ * ({@link com.example.optimizer.codec.OptimizerInputFingerprint}). Ponowne zlecenie tych samych danych
+ * jest obsługiwane od razu z pamięci ({@link Mode#SERVE}) albo zaczyna przeszukiwanie od zapamiętanego
+ * rozwiązania ({@link Mode#WARM_START}). Wpisy wygasają po czasie TTL, a po przekroczeniu limitu
+ * usuwany jest najdawniej używany.
+ */
+@Slf4j
+@Component
+public class OptimizationResultCache {
+
+    public enum Mode {
+        OFF,
+        SERVE,
+        WARM_START
+    }
+
+    /**
+     * Genom najlepszego rozwiązania i odpowiadające mu trasy.
+     */
+    public record CachedResult(int[] sequence, List<OptimizedRoute> routes, double fitness, Instant storedAt) {
+    }
+
+    private final Mode mode;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, CachedResult> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public OptimizationResultCache(@Value("${optimizer.result-cache.mode:serve}") String mode,
+                                   @Value("${optimizer.result-cache.ttl:PT6H}") Duration ttl,
+                                   @Value("${optimizer.result-cache.max-entries:200}") int maxEntries) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase().replace('-', '_'));
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > OptimizationResultCache.this.maxEntries;
+            }
+        };
+        log.info("Optimization result cache: mode {}, ttl {}, {} entries", this.mode, ttl, maxEntries);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.OFF && maxEntries > 0;
+    }
+
+    /**
+     * @return zapamiętany wynik lub null; każde wywołanie liczone jest jako trafienie albo chybienie
+     */
+    public synchronized CachedResult get(String fingerprint) {
+        CachedResult cached = entries.get(fingerprint);
+        if (cached != null && cached.storedAt().isBefore(Instant.now().minus(ttl))) {
+            entries.remove(fingerprint);
+            cached = null;
+        }
+        (cached != null ? hitCount : missCount).incrementAndGet();
+        return cached;
+    }
+
+    public synchronized void put(String fingerprint, int[] sequence, List<OptimizedRoute> routes, double fitness) {
+        if (!isEnabled() || fingerprint == null) {
+            return;
+        }
+        entries.put(fingerprint, new CachedResult(sequence.clone(), List.copyOf(routes), fitness, Instant.now()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
@@ -1,19 +1,177 @@
 package com.example.optimizer.repository;
 
+import com.example.optimizer.model.OptimizationStatus;
 import com.example.optimizer.model.RunningOptimization;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Przechowuje optymalizacje w pamięci. Zakończone optymalizacje zwalniają macierze odległości,
+ * wygasają po czasie TTL i są usuwane (od najstarszych), gdy przekroczony zostanie limit liczby wpisów lub bajtów.
+ * Optymalizacje w toku nigdy nie są usuwane.
+ */
+@Slf4j
 @Component
 public class RunningOptimizationRepository {
-    private final ConcurrentHashMap<Long, RunningOptimization> runningOptimizations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, StoredOptimization> runningOptimizations = new ConcurrentHashMap<>();
 
-    public void save(RunningOptimization optimization) {
-        runningOptimizations.put(optimization.getId(), optimization);
+    private final Duration ttl;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+
+    public RunningOptimizationRepository(@Value("${optimizer.repository.ttl:PT1H}") Duration ttl,
+                                         @Value("${optimizer.repository.max-entries:1000}") int maxEntries,
+                                         @Value("${optimizer.repository.max-bytes:536870912}") long maxBytes) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized void save(RunningOptimization optimization) {
+        StoredOptimization previous = runningOptimizations.put(optimization.getId(), new StoredOptimization(optimization));
+        if (previous != null) {
+            residentBytes.addAndGet(-previous.bytes);
+        }
+        residentBytes.addAndGet(runningOptimizations.get(optimization.getId()).bytes);
+        evictExpired();
+        evictOverCapacity();
     }
 
     public RunningOptimization findById(Long id) {
-        return runningOptimizations.get(id);
+        StoredOptimization stored = runningOptimizations.get(id);
+        return stored != null ? stored.optimization : null;
+    }
+
+    public synchronized void deleteById(Long id) {
+        StoredOptimization removed = runningOptimizations.remove(id);
+        if (removed != null) {
+            residentBytes.addAndGet(-removed.bytes);
+        }
+    }
+
+    /**
+     * Oznacza optymalizację jako zakończoną z podanym statusem: zwalnia macierze i aktualizuje zajętość pamięci.
+     */
+    public synchronized void finish(RunningOptimization optimization, OptimizationStatus status) {
+        optimization.setFinishedAt(Instant.now());
+        optimization.setTravelMatrix(null);
+        optimization.setFleetIndex(null);
+        optimization.setNeighborList(null);
+        optimization.setStatus(status);
+        StoredOptimization stored = runningOptimizations.get(optimization.getId());
+        if (stored != null && stored.optimization == optimization) {
+            long bytes = estimateBytes(optimization);
+            residentBytes.addAndGet(bytes - stored.bytes);
+            stored.bytes = bytes;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${optimizer.repository.sweep-interval:PT1M}")
+    public synchronized void evictExpired() {
+        Instant expiresBefore = Instant.now().minus(ttl);
+        runningOptimizations.values().removeIf(stored -> {
+            Instant finishedAt = stored.optimization.getFinishedAt();
+            if (isFinished(stored) && finishedAt != null && finishedAt.isBefore(expiresBefore)) {
+                residentBytes.addAndGet(-stored.bytes);
+                expiredCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void evictOverCapacity() {
+        if (runningOptimizations.size() <= maxEntries && residentBytes.get() <= maxBytes) {
+            return;
+        }
+        List<StoredOptimization> finished = runningOptimizations.values().stream()
+                .filter(RunningOptimizationRepository::isFinished)
+                .sorted(Comparator.comparing(stored -> stored.optimization.getFinishedAt(),
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        for (StoredOptimization stored : finished) {
+            if (runningOptimizations.size() <= maxEntries && residentBytes.get() <= maxBytes) {
+                return;
+            }
+            runningOptimizations.remove(stored.optimization.getId());
+            residentBytes.addAndGet(-stored.bytes);
+            evictedCount.incrementAndGet();
+        }
+        log.warn("Running optimizations exceed the repository limit ({} entries, {} bytes) with no finished entries left to evict",
+                runningOptimizations.size(), residentBytes.get());
+    }
+
+    public int size() {
+        return runningOptimizations.size();
+    }
+
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    private static boolean isFinished(StoredOptimization stored) {
+        return stored.optimization.getStatus() != OptimizationStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Przybliżony rozmiar optymalizacji na stercie; dominują macierze n x n.
+     */
+    static long estimateBytes(RunningOptimization optimization) {
+        long bytes = 128;
+        if (optimization.getTravelMatrix() != null) {
+            bytes += optimization.getTravelMatrix().bytes();
+        }
+        if (optimization.getNeighborList() != null) {
+            bytes += optimization.getNeighborList().bytes();
+        }
+        if (optimization.getOrders() != null) {
+            bytes += 64L * optimization.getOrders().size();
+        }
+        if (optimization.getDrivers() != null) {
+            bytes += 160L * optimization.getDrivers().size();
+        }
+        if (optimization.getVehicles() != null) {
+            bytes += 64L * optimization.getVehicles().size();
+        }
+        if (optimization.getRoutes() != null) {
+            for (var route : optimization.getRoutes()) {
+                bytes += 96 + 24L * (route.getOrderIdsOrdered() != null ? route.getOrderIdsOrdered().size() : 0);
+            }
+        }
+        if (optimization.getConvergence() != null) {
+            bytes += 48L * optimization.getConvergence().size();
+        }
+        return bytes;
+    }
+
+    private static final class StoredOptimization {
+        private final RunningOptimization optimization;
+        private long bytes;
+
+        private StoredOptimization(RunningOptimization optimization) {
+            this.optimization = optimization;
+            this.bytes = estimateBytes(optimization);
+        }
     }
 }
@@ -0,0 +1,121 @@
+package com.example.optimizer.service;
+
+import com.example.optimizer.dto.OptimizerResponse;
+import com.example.optimizer.model.RunningOptimization;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Wysyła stan optymalizacji na {@code callbackUrl} zlecenia: po każdym opublikowanym lepszym wyniku
+ * i po zakończeniu (COMPLETED/FAILED/CANCELLED). Wywołania wykonuje jeden wątek w kolejności zgłoszeń,
+ * więc powiadomienie o zakończeniu nie wyprzedzi wcześniejszego postępu. Postęp jest scalany: dopóki
+ * poprzednie powiadomienie o postępie czeka w kolejce, kolejne nie są dodawane, a wysyłany jest stan z chwili wysłania.
+ * Nieudane wywołania nie są ponawiane; zlecający uzgadnia stan, odpytując {@code GET /api/optimizer/{id}}.
+ */
+@Slf4j
+@Component
+public class OptimizationCallbackNotifier {
+
+    public static final String TOKEN_HEADER = "X-Optimizer-Callback-Token";
+
+    private final RestClient restClient;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> pendingProgress = ConcurrentHashMap.newKeySet();
+
+    public OptimizationCallbackNotifier(@Value("${optimizer.callback.timeout:PT5S}") Duration timeout,
+                                        @Value("${optimizer.callback.queue-capacity:1000}") int queueCapacity) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "optimization-callback");
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, this::discard);
+    }
+
+    /**
+     * Zgłasza nowy najlepszy dotychczasowy wynik.
+     */
+    public void progress(RunningOptimization optimization) {
+        if (optimization.getCallbackUrl() == null || !pendingProgress.add(optimization.getId())) {
+            return;
+        }
+        executor.execute(new ProgressCallback(optimization));
+    }
+
+    /**
+     * Zgłasza zakończenie optymalizacji; wywoływane po ustawieniu końcowego statusu.
+     */
+    public void finished(RunningOptimization optimization) {
+        if (optimization.getCallbackUrl() == null) {
+            return;
+        }
+        OptimizerResponse response = OptimizerResponse.of(optimization);
+        executor.execute(() -> send(optimization.getCallbackUrl(), optimization.getCallbackToken(), response));
+    }
+
+    private void send(RunningOptimization optimization) {
+        send(optimization.getCallbackUrl(), optimization.getCallbackToken(), OptimizerResponse.of(optimization));
+    }
+
+    private void send(String url, String token, OptimizerResponse response) {
+        try {
+            restClient.post()
+                    .uri(url)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (token != null) {
+                            headers.set(TOKEN_HEADER, token);
+                        }
+                    })
+                    .body(response)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (Exception e) {
+            log.warn("Optimization {}: callback to {} failed: {}", response.getPlanningId(), url, e.getMessage());
+        }
+    }
+
+    /**
+     * Odrzuca powiadomienie przy pełnej kolejce; odrzucony postęp nie blokuje kolejnych zgłoszeń postępu tej optymalizacji.
+     */
+    private void discard(Runnable task, ThreadPoolExecutor rejectingExecutor) {
+        if (task instanceof ProgressCallback callback) {
+            pendingProgress.remove(callback.optimization.getId());
+        }
+        log.debug("Optimization callback queue is full, notification dropped");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private final class ProgressCallback implements Runnable {
+
+        private final RunningOptimization optimization;
+
+        private ProgressCallback(RunningOptimization optimization) {
+            this.optimization = optimization;
+        }
+
+        @Override
+        public void run() {
+            pendingProgress.remove(optimization.getId());
+            send(optimization);
+        }
+    }
+}
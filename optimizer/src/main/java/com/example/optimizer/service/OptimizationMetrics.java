@@ -0,0 +1,95 @@
+package com.example.optimizer.service;
+
+import com.example.optimizer.algorithm.Calculator;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.RunningOptimization;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Metryki Micrometer zakończonych optymalizacji ({@code /actuator/metrics}), do doboru limitów czasu i wykrywania
+ * regresji jakości: czas przeszukiwania i do pierwszego rozwiązania dopuszczalnego, przepustowość iteracji i ocen,
+ * udział ocen dopuszczalnych, trafienia listy tabu i poprawa oceny względem rozwiązania początkowego.
+ * Metryki mają znaczniki silnika i klasy wielkości instancji ({@link #sizeClass}).
+ */
+@Component
+public class OptimizationMetrics {
+
+    // górne granice klas wielkości instancji (liczby zleceń)
+    private static final int[] SIZE_CLASSES = {50, 200, 1000, 5000};
+
+    private final MeterRegistry registry;
+
+    public OptimizationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Zapisuje optymalizację po ustawieniu końcowego statusu; z anulowanej liczony jest tylko przebieg.
+     */
+    public void finished(RunningOptimization optimization) {
+        String engine = optimization.getEngine() != null ? optimization.getEngine() : optimization.getSettings().getEngine();
+        Tags tags = Tags.of("engine", engine, "orders", sizeClass(optimization.getOrders().size()));
+        Counter.builder("optimizer.runs")
+                .description("Zakończone optymalizacje według statusu")
+                .tags(tags.and("status", optimization.getStatus().name()))
+                .register(registry)
+                .increment();
+        if (optimization.getStatus() == OptimizationStatus.CANCELLED || optimization.getIterations() == null) {
+            return;
+        }
+
+        Timer.builder("optimizer.run.duration")
+                .description("Czas przeszukiwania")
+                .tags(tags)
+                .register(registry)
+                .record(Duration.ofMillis(optimization.getElapsedMillis()));
+        if (optimization.getFirstFeasibleMillis() != null) {
+            Timer.builder("optimizer.first.feasible")
+                    .description("Czas do pierwszego rozwiązania dopuszczalnego")
+                    .tags(tags)
+                    .register(registry)
+                    .record(Duration.ofMillis(optimization.getFirstFeasibleMillis()));
+        }
+        summary("optimizer.iterations.rate", "iterations/s", tags, optimization.getIterationsPerSecond());
+        summary("optimizer.evaluations.rate", "evaluations/s", tags, optimization.getEvaluationsPerSecond());
+        if (optimization.getFeasibilityRate() != null) {
+            summary("optimizer.feasibility.rate", null, tags, optimization.getFeasibilityRate());
+        }
+        summary("optimizer.tabu.hits", "moves", tags, optimization.getTabuHits());
+        Double initial = optimization.getInitialFitness();
+        Double fitness = optimization.getFitness();
+        if (initial != null && fitness != null && optimization.getStatus() == OptimizationStatus.COMPLETED
+                && initial > 0 && Calculator.isFeasible(initial)) {
+            // względna poprawa dopuszczalnego rozwiązania początkowego, niezależna od skali instancji
+            summary("optimizer.fitness.improvement", null, tags, (initial - fitness) / initial);
+        }
+    }
+
+    /**
+     * Klasa wielkości instancji jako górna granica liczby zleceń, np. {@code "200"} dla 51-200 zleceń;
+     * powyżej największej granicy {@code "more"}.
+     */
+    static String sizeClass(int orders) {
+        for (int limit : SIZE_CLASSES) {
+            if (orders <= limit) {
+                return String.valueOf(limit);
+            }
+        }
+        return "more";
+    }
+
+    private void summary(String name, String baseUnit, Tags tags, double value) {
+        DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .register(registry)
+                .record(value);
+    }
+}
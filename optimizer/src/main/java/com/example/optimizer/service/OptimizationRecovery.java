@@ -0,0 +1,39 @@
+package com.example.optimizer.service;
+
+import com.example.optimizer.repository.OptimizationJobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Po starcie aplikacji odtwarza zadania zapisane w {@link OptimizationJobStore}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimizationRecovery implements ApplicationRunner {
+
+    private final OptimizationJobStore jobStore;
+    private final OptimizerService optimizerService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var jobs = jobStore.loadAll();
+        int resumed = 0;
+        for (var job : jobs) {
+            try {
+                optimizerService.restore(job);
+                if (!job.isFinished()) {
+                    resumed++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not restore optimization {}", job.request().getPlanningId(), e);
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Restored {} optimizations from the job store ({} resumed)", jobs.size(), resumed);
+        }
+    }
+}
@@ -1,32 +1,167 @@
 package com.example.optimizer.service;
 
-import com.example.optimizer.algorithm.TabuSearchOptimizer;
+import com.example.optimizer.algorithm.SearchWorkerPool;
+import com.example.optimizer.algorithm.MetaheuristicOptimizer;
+import com.example.optimizer.codec.OptimizerInputFingerprint;
 import com.example.optimizer.dto.OptimizerRequest;
 import com.example.optimizer.dto.OptimizerResponse;
+import com.example.optimizer.dto.OptimizerStatsResponse;
+import com.example.optimizer.dto.OptimizerTelemetryResponse;
+import com.example.optimizer.model.FleetIndex;
+import com.example.optimizer.model.OptimizationSettings;
 import com.example.optimizer.model.OptimizationStatus;
 import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.TravelMatrix;
+import com.example.optimizer.repository.OptimizationJobStore;
+import com.example.optimizer.repository.OptimizationResultCache;
 import com.example.optimizer.repository.RunningOptimizationRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OptimizerService {
-    private final TabuSearchOptimizer optimizer;
+    private final MetaheuristicOptimizer optimizer;
     private final RunningOptimizationRepository repository;
+    private final ThreadPoolTaskExecutor optimizationExecutor;
+    private final SearchWorkerPool searchWorkerPool;
+    private final OptimizationJobStore jobStore;
+    private final OptimizationResultCache resultCache;
+    private final OptimizationCallbackNotifier callbacks;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    // macierze przejazdów we float32 zajmują połowę pamięci kosztem dokładności ~7 cyfr znaczących
+    @Value("${optimizer.travel-matrix.float32:false}")
+    private boolean travelMatrixFloat32;
+
+    /**
+     * Zleca optymalizację na puli optimizationExecutor.
+     *
+     * @return false, jeśli kolejka puli jest pełna i zlecenie zostało odrzucone
+     */
+    public boolean optimize(OptimizerRequest request) {
+        String fingerprint = fingerprint(request);
+        var cached = fingerprint != null ? resultCache.get(fingerprint) : null;
+        if (cached != null && resultCache.getMode() == OptimizationResultCache.Mode.SERVE) {
+            serveCached(request, fingerprint, cached);
+            return true;
+        }
+        jobStore.saveInput(request);
+        // przy WARM_START pierwsza trajektoria zaczyna od zapamiętanego rozwiązania
+        if (!start(request, cached != null ? cached.sequence() : null, fingerprint)) {
+            jobStore.delete(request.getPlanningId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Odtwarza zadanie z dziennika po restarcie: zakończone trafia od razu do repozytorium,
+     * przerwane jest zlecane ponownie od ostatniego punktu kontrolnego. Wznowienie odrzucone przy pełnej kolejce
+     * trafia do repozytorium jako FAILED, aby backend poznał jego stan zamiast otrzymywać 404.
+     */
+    public void restore(OptimizationJobStore.PersistedJob job) {
+        var request = job.request();
+        if (job.isFinished()) {
+            var optimization = buildOptimization(request, null, null);
+            optimization.setRoutes(job.resultRoutes());
+            optimization.setFitness(job.resultFitness());
+            repository.save(optimization);
+            repository.finish(optimization, job.resultStatus());
+            return;
+        }
+        if (!start(request, job.checkpointSequence(), fingerprint(request))) {
+            var optimization = buildOptimization(request, null, null);
+            repository.save(optimization);
+            jobStore.saveResult(optimization.getId(), OptimizationStatus.FAILED, null, null);
+            repository.finish(optimization, OptimizationStatus.FAILED);
+            callbacks.finished(optimization);
+        }
+    }
+
+    /**
+     * Kończy zlecenie od razu wynikiem z pamięci; wynik trafia też do dziennika, aby przetrwał restart.
+     */
+    private void serveCached(OptimizerRequest request, String fingerprint, OptimizationResultCache.CachedResult cached) {
+        jobStore.saveInput(request);
+        var optimization = buildOptimization(request, null, fingerprint);
+        optimization.setRoutes(cached.routes());
+        optimization.setFitness(cached.fitness());
+        optimization.setServedFromCache(true);
+        repository.save(optimization);
+        jobStore.saveResult(optimization.getId(), OptimizationStatus.COMPLETED, cached.routes(), cached.fitness());
+        repository.finish(optimization, OptimizationStatus.COMPLETED);
+        callbacks.finished(optimization);
+        log.info("Optimization {} served from the result cache (fitness {})", optimization.getId(), cached.fitness());
+    }
+
+    private String fingerprint(OptimizerRequest request) {
+        if (!resultCache.isEnabled()) {
+            return null;
+        }
+        return OptimizerInputFingerprint.of(request, OptimizationSettings.withDefaults(request.getSettings()));
+    }
+
+    private boolean start(OptimizerRequest request, int[] initialSequence, String fingerprint) {
+        var optimization = buildOptimization(request, initialSequence, fingerprint);
+        repository.save(optimization);
+        try {
+            optimizer.optimize(optimization);
+            return true;
+        } catch (TaskRejectedException e) {
+            repository.deleteById(optimization.getId());
+            rejectedCount.incrementAndGet();
+            log.warn("Optimization {} rejected, executor queue is full", optimization.getId());
+            return false;
+        }
+    }
 
-    public void optimize(OptimizerRequest request) {
-        var optimization = RunningOptimization.builder()
+    private RunningOptimization buildOptimization(OptimizerRequest request, int[] initialSequence, String fingerprint) {
+        return RunningOptimization.builder()
                 .id(request.getPlanningId())
                 .status(OptimizationStatus.IN_PROGRESS)
                 .drivers(request.getDrivers())
                 .orders(request.getOrders())
                 .vehicles(request.getVehicles())
-                .distanceMatrix(request.getDistanceMatrix())
-                .durationMatrix(request.getDurationMatrix())
+                .travelMatrix(TravelMatrix.of(request.getDistanceMatrix(), request.getDurationMatrix(), travelMatrixFloat32))
+                .fleetIndex(FleetIndex.of(request.getDrivers(), request.getVehicles(), request.getOrders()))
+                .settings(OptimizationSettings.withDefaults(request.getSettings()))
+                .previousRoutes(request.getPreviousRoutes())
+                .initialSequence(initialSequence)
+                .fingerprint(fingerprint)
+                .callbackUrl(request.getCallbackUrl())
+                .callbackToken(request.getCallbackToken())
+                .seed(request.getSeed())
                 .build();
-        repository.save(optimization);
-        optimizer.optimize(optimization);
+    }
+
+    /**
+     * Zgłasza anulowanie optymalizacji. Przeszukiwanie kończy się przy najbliższej iteracji, a zasoby zadania
+     * zwalnia wątek optymalizacji; zadanie oczekujące w kolejce kończy się od razu po pobraniu z kolejki.
+     * Anulowanie zakończonej optymalizacji nic nie zmienia.
+     *
+     * @return false, jeśli optymalizacja o podanym id nie istnieje
+     */
+    public boolean cancel(Long id) {
+        var optimization = repository.findById(id);
+        if (optimization == null) {
+            return false;
+        }
+        if (optimization.getStatus() == OptimizationStatus.IN_PROGRESS) {
+            optimization.setCancelled(true);
+            log.info("Optimization {} cancellation requested", id);
+        }
+        return true;
     }
 
     public OptimizerResponse getOptimizationResult(Long id) {
@@ -34,9 +169,54 @@ public class OptimizerService {
         if (optimization == null) {
             return null;
         }
-        return OptimizerResponse.builder()
-                .status(optimization.getStatus())
-                .routes(optimization.getRoutes())
+        return OptimizerResponse.of(optimization);
+    }
+
+    /**
+     * Telemetria optymalizacji (przebieg zbieżności i liczniki przeszukiwania); null dla nieznanego id.
+     */
+    public OptimizerTelemetryResponse getTelemetry(Long id) {
+        var optimization = repository.findById(id);
+        if (optimization == null) {
+            return null;
+        }
+        return OptimizerTelemetryResponse.of(optimization);
+    }
+
+    /**
+     * Stan wielu optymalizacji naraz; nieznane id są pomijane.
+     */
+    public List<OptimizerResponse> getOptimizationStatuses(List<Long> ids) {
+        List<OptimizerResponse> statuses = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            var optimization = id != null ? repository.findById(id) : null;
+            if (optimization != null) {
+                statuses.add(OptimizerResponse.summaryOf(optimization));
+            }
+        }
+        return statuses;
+    }
+
+    public OptimizerStatsResponse getStats() {
+        var executor = optimizationExecutor.getThreadPoolExecutor();
+        long hits = resultCache.getHitCount();
+        long misses = resultCache.getMissCount();
+        return OptimizerStatsResponse.builder()
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(optimizationExecutor.getQueueCapacity())
+                .activeWorkers(executor.getActiveCount())
+                .poolSize(executor.getPoolSize())
+                .maxPoolSize(executor.getMaximumPoolSize())
+                .searchPoolSize(searchWorkerPool.getPoolSize())
+                .rejectedCount(rejectedCount.get())
+                .storedOptimizations(repository.size())
+                .storedBytes(repository.getResidentBytes())
+                .expiredCount(repository.getExpiredCount())
+                .evictedCount(repository.getEvictedCount())
+                .resultCacheSize(resultCache.size())
+                .resultCacheHits(hits)
+                .resultCacheMisses(misses)
+                .resultCacheHitRate(hits + misses > 0 ? (double) hits / (hits + misses) : 0.0)
                 .build();
     }
 }
@@ -0,0 +1,179 @@
+package com.example.optimizer.algorithm;
+
+import com.example.optimizer.model.Driver;
+import com.example.optimizer.model.OptimizationSettings;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.Order;
+import com.example.optimizer.model.RunningOptimization;
+import com.example.optimizer.model.TravelMatrix;
+import com.example.optimizer.model.Vehicle;
+import com.example.optimizer.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ocena przyrostowa porównywana z pełnym {@link Calculator#calculateFitness} na losowych zamianach i ruchach
+ * zakresów, na instancjach z rozwiązaniami dopuszczalnymi i niedopuszczalnymi (krótkie zmiany, ciężkie zlecenia).
+ */
+class DeltaEvaluatorTest {
+
+    private static final int INSTANCES = 60;
+    private static final int MOVES_PER_INSTANCE = 200;
+
+    @Test
+    void swapsMatchFullEvaluation() {
+        Random random = new Random(1);
+        for (int t = 0; t < INSTANCES; t++) {
+            RunningOptimization optimization = instance(5 + t % 40, 2 + t % 6, t);
+            Solution solution = initialSolution(optimization, t);
+            DeltaEvaluator evaluator = new DeltaEvaluator(solution, optimization);
+            int size = solution.size();
+            for (int k = 0; k < MOVES_PER_INSTANCE; k++) {
+                int a = random.nextInt(size);
+                int b = random.nextInt(size);
+                Solution candidate = solution.copy();
+                candidate.swap(a, b);
+
+                assertEquals(Calculator.calculateFitness(candidate, optimization), evaluator.evaluateSwap(a, b));
+                if (random.nextInt(3) == 0) {
+                    double fitness = evaluator.applySwap(a, b);
+                    assertEquals(Calculator.calculateFitness(solution, optimization), fitness);
+                    assertEquals(fitness, evaluator.fitness());
+                }
+            }
+            assertPositionsIndexed(evaluator, solution);
+        }
+    }
+
+    @Test
+    void rangeMovesMatchFullEvaluation() {
+        Random random = new Random(2);
+        for (int t = 0; t < INSTANCES; t++) {
+            RunningOptimization optimization = instance(5 + t % 40, 2 + t % 6, t);
+            Solution solution = initialSolution(optimization, t);
+            DeltaEvaluator evaluator = new DeltaEvaluator(solution, optimization);
+            int size = solution.size();
+            for (int k = 0; k < MOVES_PER_INSTANCE; k++) {
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from);
+                int[] genes = permutedRange(solution.getSequence(), from, to, random);
+                Solution candidate = solution.copy();
+                System.arraycopy(genes, 0, candidate.getSequence(), from, genes.length);
+
+                assertEquals(Calculator.calculateFitness(candidate, optimization), evaluator.evaluateMove(from, to, genes));
+                if (random.nextInt(3) == 0) {
+                    double fitness = evaluator.applyMove(from, to, genes);
+                    assertEquals(Calculator.calculateFitness(solution, optimization), fitness);
+                    assertEquals(fitness, evaluator.fitness());
+                }
+            }
+            assertPositionsIndexed(evaluator, solution);
+        }
+    }
+
+    /**
+     * Geny zakresu from..to po przeniesieniu, odwróceniu albo losowej permutacji.
+     */
+    private static int[] permutedRange(int[] sequence, int from, int to, Random random) {
+        int length = to - from + 1;
+        int[] genes = new int[length];
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                // przeniesienie pierwszego genu na koniec zakresu
+                System.arraycopy(sequence, from + 1, genes, 0, length - 1);
+                genes[length - 1] = sequence[from];
+            }
+            case 1 -> {
+                for (int i = 0; i < length; i++) {
+                    genes[i] = sequence[to - i];
+                }
+            }
+            default -> {
+                System.arraycopy(sequence, from, genes, 0, length);
+                for (int i = length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int gene = genes[i];
+                    genes[i] = genes[j];
+                    genes[j] = gene;
+                }
+            }
+        }
+        return genes;
+    }
+
+    private static void assertPositionsIndexed(DeltaEvaluator evaluator, Solution solution) {
+        int[] sequence = solution.getSequence();
+        int route = 0;
+        for (int p = 0; p < sequence.length; p++) {
+            assertEquals(route, evaluator.routeOf(p));
+            if (sequence[p] >= 0) {
+                assertEquals(p, evaluator.positionOf(sequence[p]));
+            } else {
+                route++;
+            }
+        }
+        assertEquals(route + 1, evaluator.routeCount());
+    }
+
+    private static Solution initialSolution(RunningOptimization optimization, long seed) {
+        return new Solution(optimization.getOrders().size(), MetaheuristicOptimizer.groupCount(optimization),
+                new SplittableRandom(seed));
+    }
+
+    /**
+     * Zlecenia w losowych punktach kwadratu 20 x 20 (czasy przejazdu w minutach równe odległościom), kierowcy
+     * ze zmianami od 1 do 8 godzin i pojazdy wszystkich typów; co siódma instancja ma zlecenie cięższe
+     * od każdego pojazdu.
+     */
+    private static RunningOptimization instance(int orderCount, int driverCount, long seed) {
+        Random random = new Random(seed);
+        int locations = orderCount + 1;
+        double[][] points = new double[locations][2];
+        for (double[] point : points) {
+            point[0] = random.nextDouble() * 20;
+            point[1] = random.nextDouble() * 20;
+        }
+        double[][] distances = new double[locations][locations];
+        for (int i = 0; i < locations; i++) {
+            for (int j = 0; j < locations; j++) {
+                distances[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+            }
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            double weight = seed % 7 == 0 && i == 0 ? 30_000 : random.nextDouble() * 8000;
+            orders.add(Order.builder().id(1000L + i).cargoWeight(weight).build());
+        }
+        VehicleType[] types = VehicleType.values();
+        Set<Driver> drivers = new HashSet<>();
+        Set<Vehicle> vehicles = new HashSet<>();
+        for (int i = 0; i < driverCount; i++) {
+            drivers.add(Driver.builder()
+                    .id((long) i)
+                    .licences(EnumSet.allOf(VehicleType.class))
+                    .workStart(LocalTime.of(6, 0))
+                    .workEnd(LocalTime.of(7 + random.nextInt(8), 0))
+                    .build());
+            vehicles.add(Vehicle.builder().id(100L + i).vehicleType(types[i % types.length]).build());
+        }
+        return RunningOptimization.builder()
+                .id(seed)
+                .status(OptimizationStatus.IN_PROGRESS)
+                .drivers(drivers)
+                .vehicles(vehicles)
+                .orders(orders)
+                .travelMatrix(TravelMatrix.of(distances, distances, false))
+                .settings(OptimizationSettings.withDefaults(null))
+                .build();
+    }
+}
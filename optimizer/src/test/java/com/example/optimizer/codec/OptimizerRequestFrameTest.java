@@ -0,0 +1,152 @@
+package com.example.optimizer.codec;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.Driver;
+import com.example.optimizer.model.OptimizationSettings;
+import com.example.optimizer.model.Order;
+import com.example.optimizer.model.Vehicle;
+import com.example.optimizer.model.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimizerRequestFrameTest {
+
+    @Test
+    void float64RoundTripIsExact() {
+        OptimizerRequest request = request(matrix(5, 1.1), matrix(5, 60.7));
+
+        assertEquals(request, OptimizerRequestFrame.decode(OptimizerRequestFrame.encode(request, 0)));
+    }
+
+    @Test
+    void float32RoundTripRoundsMatricesToFloat() {
+        OptimizerRequest request = request(matrix(5, 1.1), matrix(5, 60.7));
+        OptimizerRequest expected = request(toFloat(request.getDistanceMatrix()), toFloat(request.getDurationMatrix()));
+
+        OptimizerRequest decoded = OptimizerRequestFrame.decode(
+                OptimizerRequestFrame.encode(request, OptimizerRequestFrame.FLAG_FLOAT32));
+
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    void deflateRoundTripIsExact() {
+        OptimizerRequest request = request(matrix(40, 1.1), matrix(40, 60.7));
+
+        assertEquals(request, OptimizerRequestFrame.decode(
+                OptimizerRequestFrame.encode(request, OptimizerRequestFrame.FLAG_DEFLATE)));
+    }
+
+    @Test
+    void deflateFloat32RoundTripRoundsMatricesToFloat() {
+        OptimizerRequest request = request(matrix(40, 1.1), matrix(40, 60.7));
+        OptimizerRequest expected = request(toFloat(request.getDistanceMatrix()), toFloat(request.getDurationMatrix()));
+
+        assertEquals(expected, OptimizerRequestFrame.decode(OptimizerRequestFrame.encode(request,
+                OptimizerRequestFrame.FLAG_FLOAT32 | OptimizerRequestFrame.FLAG_DEFLATE)));
+    }
+
+    @Test
+    void requestWithoutOptionalFieldsRoundTrips() {
+        OptimizerRequest request = OptimizerRequest.builder()
+                .planningId(3L)
+                .drivers(Set.of())
+                .vehicles(Set.of())
+                .orders(List.of())
+                .build();
+
+        OptimizerRequest decoded = OptimizerRequestCodec.decode(OptimizerRequestCodec.encode(request));
+
+        assertEquals(request, decoded);
+        assertNull(decoded.getSettings());
+    }
+
+    @Test
+    void rejectsForeignMagic() {
+        byte[] frame = OptimizerRequestFrame.encode(request(matrix(3, 1.0), matrix(3, 1.0)), 0);
+        frame[0] ^= 1;
+
+        assertThrows(MalformedPayloadException.class, () -> OptimizerRequestFrame.decode(frame));
+    }
+
+    @Test
+    void rejectsTruncatedFrame() {
+        byte[] frame = OptimizerRequestFrame.encode(request(matrix(10, 1.0), matrix(10, 1.0)), 0);
+
+        assertThrows(MalformedPayloadException.class,
+                () -> OptimizerRequestFrame.decode(Arrays.copyOf(frame, frame.length - 7)));
+    }
+
+    @Test
+    void rejectsTruncatedDeflateBody() {
+        byte[] frame = OptimizerRequestFrame.encode(request(matrix(10, 1.0), matrix(10, 1.0)),
+                OptimizerRequestFrame.FLAG_DEFLATE);
+
+        assertThrows(MalformedPayloadException.class,
+                () -> OptimizerRequestFrame.decode(Arrays.copyOf(frame, frame.length - 7)));
+    }
+
+    private static OptimizerRequest request(double[][] distanceMatrix, double[][] durationMatrix) {
+        int orders = distanceMatrix.length - 1;
+        return OptimizerRequest.builder()
+                .planningId(42L)
+                .drivers(Set.of(
+                        Driver.builder().id(1L).licences(EnumSet.of(VehicleType.SMALL_VAN, VehicleType.LARGE_TRUCK))
+                                .workStart(LocalTime.of(6, 30)).workEnd(LocalTime.of(14, 45)).build(),
+                        Driver.builder().id(2L).licences(EnumSet.noneOf(VehicleType.class)).build()))
+                .vehicles(Set.of(
+                        Vehicle.builder().id(10L).vehicleType(VehicleType.MEDIUM_TRUCK).build(),
+                        Vehicle.builder().id(11L).vehicleType(VehicleType.SEMI_TRUCK).build()))
+                .orders(LongStream.range(0, orders)
+                        .mapToObj(id -> Order.builder().id(100 + id).cargoWeight(250.5 * (id + 1)).build())
+                        .toList())
+                .distanceMatrix(distanceMatrix)
+                .durationMatrix(durationMatrix)
+                .settings(OptimizationSettings.builder()
+                        .engine("alns")
+                        .construction("regret")
+                        .threads(4)
+                        .starts(8)
+                        .timeBudgetMillis(30_000L)
+                        .neighborCount(15)
+                        .clusterSize(200)
+                        .build())
+                .previousRoutes(List.of(List.of(100L, 101L), List.of(), List.of(102L)))
+                .callbackUrl("http://backend/api/auto-planning/callback")
+                .callbackToken("zażółć")
+                .seed(-7L)
+                .build();
+    }
+
+    // wartości niereprezentowalne dokładnie we float32
+    private static double[][] matrix(int size, double scale) {
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = i == j ? 0 : scale * (Math.abs(i - j) + 0.123456789 * i);
+            }
+        }
+        return matrix;
+    }
+
+    private static double[][] toFloat(double[][] matrix) {
+        double[][] rounded = new double[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            rounded[i] = new double[matrix[i].length];
+            for (int j = 0; j < matrix[i].length; j++) {
+                rounded[i][j] = (float) matrix[i][j];
+            }
+        }
+        return rounded;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.optimizer.repository;
+
+import com.example.optimizer.dto.OptimizerRequest;
+import com.example.optimizer.model.OptimizationStatus;
+import com.example.optimizer.model.OptimizedRoute;
+import com.example.optimizer.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileOptimizationJobStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresInputCheckpointAndResult() throws Exception {
+        FileOptimizationJobStore store = store(Duration.ofHours(1));
+        OptimizerRequest running = request(7L);
+        OptimizerRequest finished = request(8L);
+        List<OptimizedRoute> routes = List.of(OptimizedRoute.builder()
+                .driverId(1L).vehicleId(null).totalDistance(12.5).estimatedTimeMinutes(95)
+                .orderIdsOrdered(List.of(101L, 100L)).build());
+
+        store.saveInput(running);
+        store.saveCheckpoint(7L, new int[]{1, 0, -1, 2}, 31.0);
+        store.saveCheckpoint(7L, new int[]{0, 1, -1, 2}, 30.5);
+        store.saveInput(finished);
+        store.saveResult(8L, OptimizationStatus.COMPLETED, routes, 12.5);
+        store.shutdown();
+
+        Map<Long, OptimizationJobStore.PersistedJob> jobs = loadAll();
+        OptimizationJobStore.PersistedJob job7 = jobs.get(7L);
+        assertEquals(running, job7.request());
+        assertArrayEquals(new int[]{0, 1, -1, 2}, job7.checkpointSequence());
+        assertEquals(30.5, job7.checkpointFitness());
+        assertFalse(job7.isFinished());
+        OptimizationJobStore.PersistedJob job8 = jobs.get(8L);
+        assertEquals(finished, job8.request());
+        assertEquals(OptimizationStatus.COMPLETED, job8.resultStatus());
+        assertEquals(routes, job8.resultRoutes());
+        assertEquals(12.5, job8.resultFitness());
+    }
+
+    @Test
+    void truncatedTailKeepsEarlierRecords() throws Exception {
+        FileOptimizationJobStore store = store(Duration.ofHours(1));
+        store.saveInput(request(7L));
+        store.saveCheckpoint(7L, new int[]{1, 0, -1, 2}, 31.0);
+        store.saveCheckpoint(7L, new int[]{0, 1, -1, 2}, 30.5);
+        store.shutdown();
+
+        Path journal = directory.resolve("7.journal");
+        byte[] bytes = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(bytes, bytes.length - 5));
+
+        OptimizationJobStore.PersistedJob job = loadAll().get(7L);
+        assertEquals(request(7L), job.request());
+        assertArrayEquals(new int[]{1, 0, -1, 2}, job.checkpointSequence());
+        assertEquals(31.0, job.checkpointFitness());
+    }
+
+    @Test
+    void recordWithBadChecksumIsIgnoredWithTheRestOfTheJournal() throws Exception {
+        FileOptimizationJobStore store = store(Duration.ofHours(1));
+        store.saveInput(request(7L));
+        store.saveCheckpoint(7L, new int[]{1, 0, -1, 2}, 31.0);
+        store.shutdown();
+        store.saveResult(7L, OptimizationStatus.COMPLETED, null, 31.0);
+
+        // ostatni bajt danych rekordu wyniku, tuż przed sumą crc32
+        Path journal = directory.resolve("7.journal");
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[bytes.length - 5] ^= 0x40;
+        Files.write(journal, bytes);
+
+        OptimizationJobStore.PersistedJob job = loadAll().get(7L);
+        assertArrayEquals(new int[]{1, 0, -1, 2}, job.checkpointSequence());
+        assertFalse(job.isFinished());
+    }
+
+    @Test
+    void newInputReplacesPreviousJournal() throws Exception {
+        FileOptimizationJobStore store = store(Duration.ofHours(1));
+        store.saveInput(request(7L));
+        store.saveResult(7L, OptimizationStatus.FAILED, null, null);
+        store.saveInput(request(7L));
+
+        OptimizationJobStore.PersistedJob job = loadAll().get(7L);
+        assertFalse(job.isFinished());
+        assertNull(job.checkpointSequence());
+    }
+
+    @Test
+    void purgesFinishedJournalsAfterRetention() throws Exception {
+        FileOptimizationJobStore store = store(Duration.ZERO);
+        store.saveInput(request(7L));
+        store.saveInput(request(8L));
+        store.saveResult(8L, OptimizationStatus.CANCELLED, null, null);
+        Thread.sleep(5);
+
+        store.purgeFinished();
+
+        assertTrue(Files.exists(directory.resolve("7.journal")));
+        assertFalse(Files.exists(directory.resolve("8.journal")));
+    }
+
+    private FileOptimizationJobStore store(Duration retention) throws IOException {
+        return new FileOptimizationJobStore(directory.toString(), retention);
+    }
+
+    private Map<Long, OptimizationJobStore.PersistedJob> loadAll() throws IOException {
+        return store(Duration.ofHours(1)).loadAll().stream()
+                .collect(Collectors.toMap(job -> job.request().getPlanningId(), Function.identity()));
+    }
+
+    private static OptimizerRequest request(Long planningId) {
+        return OptimizerRequest.builder()
+                .planningId(planningId)
+                .drivers(Set.of())
+                .vehicles(Set.of())
+                .orders(List.of(Order.builder().id(100L).cargoWeight(500).build(),
+                        Order.builder().id(101L).cargoWeight(750).build()))
+                .distanceMatrix(new double[][]{{0, 1.5, 2.5}, {1.5, 0, 3.25}, {2.5, 3.25, 0}})
+                .durationMatrix(new double[][]{{0, 60, 90}, {60, 0, 120}, {90, 120, 0}})
+                .build();
+    }
+}